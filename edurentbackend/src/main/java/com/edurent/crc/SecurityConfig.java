@@ -1,19 +1,29 @@
 package com.edurent.crc;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -21,8 +31,15 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.security.BCryptCalibration;
+import com.edurent.crc.security.BoundedPasswordEncoder;
 import com.edurent.crc.security.JwtAuthFilter;
+import com.edurent.crc.security.PublicRoutes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,20 +83,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // --- Public Endpoints ---
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow preflight checks
+                        // Public routes the JWT filter skips entirely
+                        .requestMatchers(PublicRoutes.PUBLIC_ONLY).permitAll()
+                        // Public, but a token is still read when sent (change-password, /users/me)
                         .requestMatchers("/api/v1/auth/**").permitAll()
-                        .requestMatchers("/actuator/health/**").permitAll()
-                        .requestMatchers("/actuator/metrics/**").permitAll()
-                        .requestMatchers("/api/v1/schools/**").permitAll()
-                        .requestMatchers("/ws/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/uploads/listing-images/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/users/{id}").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/users/username/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/reviews/user/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/reviews/transaction/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/categories/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/listings/**").permitAll()
                         .requestMatchers("/api/v1/transactions/test-scheduler").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/transactions/listing/**").permitAll()
 
                         // --- Private Endpoints ---
                         .requestMatchers("/api/v1/conversations/**").authenticated()
@@ -95,6 +104,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // JwtAuthFilter is a @Component, so Boot would also add it to the servlet container's
+    // chain and it would run (and count its outcome metrics) twice per request. It belongs
+    // only in the security chain above.
+    @Bean
+    public FilterRegistrationBean<JwtAuthFilter> jwtAuthFilterRegistration(JwtAuthFilter filter) {
+        FilterRegistrationBean<JwtAuthFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     // --- 3. Dedicated CORS Bean ---
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
@@ -108,7 +127,7 @@ public class SecurityConfig {
         // allowed
         configuration
                 .setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "X-Has-More", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -116,9 +135,44 @@ public class SecurityConfig {
         return source;
     }
 
+    // BCrypt at a cost calibrated for this machine, behind a delegating encoder so
+    // hashes with an older cost (or no {bcrypt} prefix) are re-hashed on login,
+    // and run on a bounded hashing pool instead of the request thread
+    @Bean
+    @Lazy(false)
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.cost:0}") int fixedCost,
+            @Value("${app.security.password.target-hash-ms:250}") long targetHashMs,
+            @Value("${app.security.password.min-cost:10}") int minCost,
+            @Value("${app.security.password.max-cost:14}") int maxCost,
+            @Value("${app.security.password.hashing-threads:0}") int hashingThreads,
+            @Value("${app.security.password.hashing-queue:64}") int hashingQueue,
+            MeterRegistry meterRegistry) {
+        int cost = fixedCost > 0 ? fixedCost : BCryptCalibration.costFor(targetHashMs, minCost, maxCost);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt); // existing hashes have no {id} prefix
+
+        int threads = hashingThreads > 0 ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueue),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorService executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hashing");
+        return new BoundedPasswordEncoder(delegating, executor);
+    }
+
+    // Stores the re-hashed password after a successful login (same password, so no token revocation).
+    // Only the hash column is written: the UserEntity here was loaded before the slow hash check.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            UserEntity entity = (UserEntity) user;
+            userRepository.updatePasswordHash(entity.getUserId(), newPassword);
+            entity.setPasswordHash(newPassword);
+            return entity;
+        };
     }
 
     @Bean
@@ -1,47 +1,218 @@
 package com.edurent.crc;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.springframework.lang.NonNull;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // simple = in-memory broker per instance; relay = external STOMP broker (e.g. RabbitMQ) shared by all instances
+    @Value("${app.websocket.broker:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // Channel executors (inbound = client frames, outbound = frames to clients, broker = fan-out)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.websocket.executor.inbound-pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${app.websocket.executor.outbound-pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${app.websocket.executor.broker-pool-size:8}")
+    private int brokerPoolSize;
+
+    @Value("${app.websocket.executor.heartbeat-pool-size:2}")
+    private int heartbeatPoolSize;
+
+    // Back-pressure per session: a slow client is disconnected once it exceeds either send limit
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Task scheduler for heartbeat functionality
     @Bean
     @NonNull
     public TaskScheduler heartBeatScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(1);
+        scheduler.setPoolSize(heartbeatPoolSize);
         scheduler.setThreadNamePrefix("wss-heartbeat-");
         scheduler.initialize();
         return scheduler;
     }
 
+    @Bean
+    public TaskExecutor wsInboundExecutor() {
+        return channelExecutor("inbound", inboundPoolSize);
+    }
+
+    @Bean
+    public TaskExecutor wsOutboundExecutor() {
+        return channelExecutor("outbound", outboundPoolSize);
+    }
+
+    @Bean
+    public TaskExecutor wsBrokerExecutor() {
+        return channelExecutor("broker", brokerPoolSize);
+    }
+
+    // Platform threads: fixed-size pool with a queue. Virtual threads: a new thread per task,
+    // at most poolSize running at once (submitters wait beyond that), since pooling virtual
+    // threads behind a queue would only cap them. Metrics: websocket.channel.latency (submit
+    // to completion), websocket.channel.active and, for the pool, websocket.channel.queue.size
+    private TaskExecutor channelExecutor(String channel, int poolSize) {
+        Timer latency = Timer.builder("websocket.channel.latency")
+                .tag("channel", channel)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        TaskDecorator timed = task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latency.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("wss-" + channel + "-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            AtomicInteger active = new AtomicInteger();
+            executor.setTaskDecorator(task -> {
+                Runnable timedTask = timed.decorate(task);
+                return () -> {
+                    active.incrementAndGet();
+                    try {
+                        timedTask.run();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                };
+            });
+            Gauge.builder("websocket.channel.active", active, AtomicInteger::get)
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("wss-" + channel + "-");
+        executor.setTaskDecorator(timed);
+        executor.initialize();
+
+        Gauge.builder("websocket.channel.queue.size", executor,
+                e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        registration.executor(wsInboundExecutor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        registration.executor(wsOutboundExecutor());
+    }
+
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
     // WebSocket configuration methods
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
         // Configure heartbeat: [serverHeartbeat, clientHeartbeat] in milliseconds
         // 10000 = 10 seconds - server sends heartbeat every 10s, expects client
         // heartbeat every 10s
-        config.enableSimpleBroker("/topic")
-                .setHeartbeatValue(new long[] { 10000, 10000 })
-                .setTaskScheduler(heartBeatScheduler());
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // Subscriptions live in the external broker, so a message sent on any instance
+            // reaches subscribers connected to every other instance
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(10000)
+                    .setSystemHeartbeatReceiveInterval(10000)
+                    .setTaskScheduler(heartBeatScheduler());
+        } else {
+            // Instances reach each other's subscribers through TopicPublisher's cluster bus, if one is configured
+            config.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(new long[] { 10000, 10000 })
+                    .setTaskScheduler(heartBeatScheduler());
+        }
 
+        config.configureBrokerChannel().executor(wsBrokerExecutor());
+        // Pooled channels would otherwise reorder messages to the same session
+        config.setPreservePublishOrder(true);
         config.setApplicationDestinationPrefixes("/app");
     }
 
     // Register STOMP endpoints
     @Override
     public void registerStompEndpoints(@NonNull StompEndpointRegistry registry) {
+        registry.setPreserveReceiveOrder(true);
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("http://localhost:5173", "http://localhost:3000", "http://localhost:4173",
                         "*")
@@ -0,0 +1,103 @@
+package com.edurent.crc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * One-time backfill of the conversation inbox summary (conversations.last_message_*),
+ * the per-participant unread counters and the per-participant inbox sort key
+ * (last_activity_at), for rows created before they were maintained. Runs after
+ * ddl-auto=update has added the columns; a no-op once everything is filled.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class ConversationSummaryMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationSummaryMigration.class);
+
+    private static final String PENDING = """
+            SELECT COUNT(*) FROM conversations c
+            WHERE c.last_message_id IS NULL
+              AND EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = c.conversation_id)
+            """;
+
+    // Same rule the inbox used before: unread messages from others after the user's clear point
+    private static final String BACKFILL_UNREAD = """
+            UPDATE conversation_participants p
+            SET unread_count = (
+                    SELECT COUNT(*) FROM messages m
+                    WHERE m.conversation_id = p.conversation_id
+                      AND m.sender_id <> p.user_id
+                      AND m.is_read IS NOT TRUE
+                      AND (p.last_deleted_at IS NULL OR m.sent_at > p.last_deleted_at)),
+                last_read_message_id = (
+                    SELECT MAX(m.message_id) FROM messages m
+                    WHERE m.conversation_id = p.conversation_id
+                      AND (m.sender_id = p.user_id OR m.is_read = true))
+            FROM conversations c
+            WHERE c.conversation_id = p.conversation_id AND c.last_message_id IS NULL
+            """;
+
+    // Runs last: a filled last_message_id marks the conversation as migrated
+    private static final String BACKFILL_SUMMARY = """
+            UPDATE conversations c
+            SET last_message_id = lm.message_id, last_message_preview = lm.content,
+                last_message_at = lm.sent_at, last_message_sender_id = lm.sender_id
+            FROM (
+                SELECT DISTINCT ON (conversation_id) conversation_id, message_id, content, sent_at, sender_id
+                FROM messages
+                ORDER BY conversation_id, sent_at DESC, message_id DESC
+            ) lm
+            WHERE lm.conversation_id = c.conversation_id AND c.last_message_id IS NULL
+            """;
+
+    private static final String PENDING_ACTIVITY = """
+            SELECT COUNT(*) FROM conversation_participants p WHERE p.last_activity_at IS NULL
+            """;
+
+    // Same ordering the inbox query computed per row before the sort key was stored.
+    // Needs the summary above; epoch only for chats with neither messages nor listing.
+    private static final String BACKFILL_ACTIVITY = """
+            UPDATE conversation_participants p
+            SET last_activity_at = COALESCE(
+                    CASE WHEN c.last_message_at IS NULL THEN l.created_at
+                         WHEN p.last_deleted_at IS NULL OR c.last_message_at > p.last_deleted_at
+                             THEN c.last_message_at
+                         ELSE p.last_deleted_at END,
+                    TIMESTAMP '1970-01-01 00:00:00')
+            FROM conversations c
+            LEFT JOIN listings l ON l.listing_id = c.listing_id
+            WHERE c.conversation_id = p.conversation_id AND p.last_activity_at IS NULL
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        Long pending = jdbcTemplate.queryForObject(PENDING, Long.class);
+        if (pending != null && pending > 0) {
+            long start = System.currentTimeMillis();
+            int participants = jdbcTemplate.update(BACKFILL_UNREAD);
+            int conversations = jdbcTemplate.update(BACKFILL_SUMMARY);
+            log.info("Backfilled inbox summary for {} conversations ({} participants) in {} ms",
+                    conversations, participants, System.currentTimeMillis() - start);
+        }
+
+        Long pendingSortKeys = jdbcTemplate.queryForObject(PENDING_ACTIVITY, Long.class);
+        if (pendingSortKeys != null && pendingSortKeys > 0) {
+            long start = System.currentTimeMillis();
+            int sortKeys = jdbcTemplate.update(BACKFILL_ACTIVITY);
+            log.info("Backfilled inbox sort key for {} participants in {} ms",
+                    sortKeys, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.edurent.crc.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Indexes that @Table(indexes = ...) cannot express (partial, descending)
+ * or that back hot queries on tables without any declared index.
+ * Each statement is idempotent (IF NOT EXISTS) and runs at startup after
+ * Hibernate's ddl-auto=update has created the tables.
+ */
+@Component
+@Lazy(false)
+@DependsOn({ "entityManagerFactory", "listingStatusMigration" }) // Partial indexes filter on the smallint status
+public class IndexMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexMigration.class);
+
+    private static final List<String> INDEXES = List.of(
+            // Listing keyset feeds: newest first within the public statuses (codes 0..1), read in
+            // index order so a window stops after LIMIT rows instead of sorting every public row
+            "CREATE INDEX IF NOT EXISTS idx_listing_public_created "
+                    + "ON listings (created_at DESC, listing_id DESC) WHERE status BETWEEN 0 AND 1",
+            "CREATE INDEX IF NOT EXISTS idx_listing_public_category_created "
+                    + "ON listings (category_id, created_at DESC, listing_id DESC) WHERE status BETWEEN 0 AND 1",
+            "CREATE INDEX IF NOT EXISTS idx_listing_public_type_created "
+                    + "ON listings (listing_type, created_at DESC, listing_id DESC) WHERE status BETWEEN 0 AND 1",
+            // Profile feed: every profile group (active, sold, all) falls in codes 0..2
+            "CREATE INDEX IF NOT EXISTS idx_listing_profile_user_created "
+                    + "ON listings (user_id, created_at DESC, listing_id DESC) WHERE status BETWEEN 0 AND 2",
+
+            // Notification inbox keyset (newest first, id tie-break) and unread badge/count
+            "CREATE INDEX IF NOT EXISTS idx_notification_user_created_id "
+                    + "ON notifications (user_id, created_at DESC, notification_id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_notification_user_unread "
+                    + "ON notifications (user_id) WHERE is_read = false",
+            // Retention job: read notifications by age
+            "CREATE INDEX IF NOT EXISTS idx_notification_read_created "
+                    + "ON notifications (created_at) WHERE is_read = true",
+
+            // Latest transaction per listing (MAX(transaction_id) GROUP BY listing_id, index-only)
+            "CREATE INDEX IF NOT EXISTS idx_transaction_listing_latest "
+                    + "ON transactions (listing_id, transaction_id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_transaction_buyer ON transactions (buyer_id)",
+            "CREATE INDEX IF NOT EXISTS idx_transaction_seller ON transactions (seller_id)",
+            // Hourly rental scheduler: only active rentals, by end date
+            "CREATE INDEX IF NOT EXISTS idx_transaction_active_rent_end "
+                    + "ON transactions (end_date) WHERE transaction_type = 'Rent' AND status = 'Active'",
+
+            // Inbox keyset: a user's visible conversations per archive tab, latest activity first
+            "CREATE INDEX IF NOT EXISTS idx_participant_inbox "
+                    + "ON conversation_participants (user_id, is_archived, last_activity_at DESC, conversation_id DESC) "
+                    + "WHERE is_deleted = false",
+            // Unread tab badges: only the user's conversations with unread messages
+            "CREATE INDEX IF NOT EXISTS idx_participant_user_unread "
+                    + "ON conversation_participants (user_id) WHERE unread_count > 0 AND is_deleted = false",
+
+            // Like counts per listing (PK leads with user_id)
+            "CREATE INDEX IF NOT EXISTS idx_like_listing ON likes (listing_id)",
+
+            // Profile reviews, newest first
+            "CREATE INDEX IF NOT EXISTS idx_review_reviewed_user_created "
+                    + "ON reviews (reviewed_user_id, created_at DESC)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createIndexes() {
+        long start = System.currentTimeMillis();
+        int failed = 0;
+        for (String statement : INDEXES) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // A missing index only costs performance; never block startup on it
+                failed++;
+                log.warn("Index migration failed: {} ({})", statement, e.getMessage());
+            }
+        }
+        log.info("Index migration checked {} indexes in {} ms ({} failed)",
+                INDEXES.size(), System.currentTimeMillis() - start, failed);
+    }
+}
@@ -0,0 +1,60 @@
+package com.edurent.crc.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * One-time conversion of listings.status from mixed-case strings
+ * ("Available", "AVAILABLE", ...) to the smallint codes of ListingStatus.
+ * Hibernate's ddl-auto=update never changes an existing column's type, so
+ * this runs at startup before the web server accepts requests. It is a
+ * no-op once the column is numeric (or before the table exists).
+ * PostgreSQL rebuilds the indexes on the column as part of the ALTER.
+ * Beans that read status at startup (search index, page cache, partial
+ * indexes in IndexMigration) declare @DependsOn("listingStatusMigration").
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class ListingStatusMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingStatusMigration.class);
+
+    // Must match the codes in ListingStatus; unknown values become INACTIVE
+    private static final String CONVERT_STATUS_COLUMN = """
+            ALTER TABLE listings ALTER COLUMN status TYPE smallint USING (
+                CASE LOWER(TRIM(status))
+                    WHEN 'available' THEN 0
+                    WHEN 'rented' THEN 1
+                    WHEN 'sold' THEN 2
+                    ELSE 3
+                END)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = 'listings' AND column_name = 'status'",
+                String.class);
+        if (types.isEmpty() || !(types.get(0).equals("character varying") || types.get(0).equals("text"))) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute(CONVERT_STATUS_COLUMN);
+        log.info("Migrated listings.status to smallint codes in {} ms", System.currentTimeMillis() - start);
+    }
+}
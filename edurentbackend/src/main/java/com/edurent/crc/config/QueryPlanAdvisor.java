@@ -0,0 +1,265 @@
+package com.edurent.crc.config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Diagnostic index advisor (off by default; app.diagnostics.query-plans=true).
+ * At startup it calls every read-only @Query method in the repository package
+ * with placeholder arguments, captures the SQL Hibernate generates (the call is
+ * aborted before it reaches the database), and asks PostgreSQL for the generic
+ * plan of that SQL. Methods whose plan contains a sequential scan are logged
+ * as warnings. Small tables are legitimately scanned, so read the report
+ * against a database with production-like row counts.
+ */
+@Component
+@Lazy(false)
+public class QueryPlanAdvisor implements HibernatePropertiesCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanAdvisor.class);
+
+    private static final String REPOSITORY_PACKAGE = "com.edurent.crc.repository";
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    // Set while a repository method runs in capture mode (see CapturingInspector)
+    private static final ThreadLocal<List<String>> CAPTURED_SQL = new ThreadLocal<>();
+
+    @Value("${app.diagnostics.query-plans:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    // Lazy: this bean customizes Hibernate, so it is created before the JPA
+    // infrastructure these depend on
+    @Lazy
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Lazy
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (enabled) {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new CapturingInspector());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void adviseOnStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        int checked = 0;
+        int flagged = 0;
+        for (Object repository : applicationContext.getBeansOfType(JpaRepository.class).values()) {
+            for (Class<?> repositoryInterface : repository.getClass().getInterfaces()) {
+                if (!repositoryInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                    continue;
+                }
+                for (Method method : repositoryInterface.getDeclaredMethods()) {
+                    if (!method.isAnnotationPresent(Query.class) || method.isAnnotationPresent(Modifying.class)) {
+                        continue;
+                    }
+                    String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                    String sql = captureSql(repository, method);
+                    if (sql == null) {
+                        log.info("[query-plan] {}: could not capture SQL, skipped", name);
+                        continue;
+                    }
+                    checked++;
+                    if (report(name, sql)) {
+                        flagged++;
+                    }
+                }
+            }
+        }
+        log.info("[query-plan] Checked {} repository queries, {} use sequential scans", checked, flagged);
+    }
+
+    // --- SQL Capture ---
+
+    private String captureSql(Object repository, Method method) {
+        Object[] args = new Object[method.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = sampleValue(method.getParameterTypes()[i], method.getGenericParameterTypes()[i]);
+        }
+
+        List<String> captured = new ArrayList<>();
+        CAPTURED_SQL.set(captured);
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try {
+                    method.invoke(repository, args);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (RuntimeException expected) {
+            // CapturingInspector aborts the statement once its SQL is known
+        } finally {
+            CAPTURED_SQL.remove();
+        }
+        return captured.isEmpty() ? null : captured.get(0);
+    }
+
+    private static Object sampleValue(Class<?> type, Type genericType) {
+        if (type == Long.class || type == long.class) {
+            return 0L;
+        } else if (type == Integer.class || type == int.class) {
+            return 0;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return false;
+        } else if (type == Double.class || type == double.class) {
+            return 0d;
+        } else if (type == String.class) {
+            return "";
+        } else if (type == Date.class) {
+            return new Date();
+        } else if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        } else if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        } else if (Pageable.class.isAssignableFrom(type)) {
+            return PageRequest.of(0, 10);
+        } else if (type == Sort.class) {
+            return Sort.unsorted();
+        } else if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterized) {
+            Type element = parameterized.getActualTypeArguments()[0];
+            if (element instanceof Class<?> elementClass) {
+                return List.of(sampleValue(elementClass, elementClass));
+            }
+        }
+        return null;
+    }
+
+    // Records the SQL and aborts, so sampled calls never run against real data
+    static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED_SQL.get();
+            if (captured == null) {
+                return sql;
+            }
+            captured.add(sql);
+            throw new IllegalStateException("Query plan capture: statement not executed");
+        }
+    }
+
+    // --- EXPLAIN ---
+
+    // Returns true when the plan contains a sequential scan
+    private boolean report(String name, String sql) {
+        List<String> plan;
+        try {
+            plan = explain(sql);
+        } catch (Exception e) {
+            log.info("[query-plan] {}: EXPLAIN failed ({})", name, e.getMessage());
+            return false;
+        }
+
+        Set<String> scannedTables = new TreeSet<>();
+        for (String line : plan) {
+            Matcher matcher = SEQ_SCAN.matcher(line);
+            if (matcher.find()) {
+                scannedTables.add(matcher.group(1));
+            }
+        }
+        if (scannedTables.isEmpty()) {
+            log.info("[query-plan] {}: index access only", name);
+            return false;
+        }
+        log.warn("[query-plan] {}: sequential scan on {}\n    {}\n    {}", name, scannedTables, sql,
+                String.join("\n    ", plan));
+        return true;
+    }
+
+    // Generic plan via PREPARE + EXPLAIN EXECUTE, so no real parameter values are needed
+    private List<String> explain(String sql) {
+        int[] parameterCount = new int[1];
+        String prepared = toNumberedParameters(sql, parameterCount);
+        String nulls = String.join(", ", Collections.nCopies(parameterCount[0], "NULL"));
+
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); // keeps SET LOCAL and PREPARE on one pooled session
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE query_plan_advisor AS " + prepared);
+                List<String> plan = new ArrayList<>();
+                String explain = parameterCount[0] == 0 ? "EXPLAIN EXECUTE query_plan_advisor"
+                        : "EXPLAIN EXECUTE query_plan_advisor(" + nulls + ")";
+                try (ResultSet rows = statement.executeQuery(explain)) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                statement.execute("DEALLOCATE query_plan_advisor");
+                return plan;
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    // JDBC '?' placeholders -> PostgreSQL $1, $2, ... (ignoring '?' inside string literals)
+    private static String toNumberedParameters(String sql, int[] count) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                out.append('$').append(++count[0]);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -8,7 +8,10 @@ import com.edurent.crc.dto.RegisterRequest;
 import com.edurent.crc.dto.ResetPasswordRequest;
 import com.edurent.crc.service.PasswordResetService;
 import com.edurent.crc.service.UserService;
+import com.edurent.crc.security.AuthenticatedUser;
+import com.edurent.crc.security.LoginRateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +19,9 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Objects;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -26,19 +31,31 @@ public class AuthController {
 
     private final UserService userService;
     private final PasswordResetService passwordResetService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Autowired
-    public AuthController(UserService userService, PasswordResetService passwordResetService) {
+    public AuthController(UserService userService, PasswordResetService passwordResetService,
+            LoginRateLimiter loginRateLimiter) {
         this.userService = userService;
         this.passwordResetService = passwordResetService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     // Endpoints
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<AuthResponse> registerUser(@Valid @RequestBody RegisterRequest registerRequest,
+            HttpServletRequest httpRequest) {
+        // Throttle per IP before the password is hashed
+        LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire(null, httpRequest.getRemoteAddr());
+        if (!attempt.allowed()) {
+            return tooManyAttempts(attempt);
+        }
         try {
             AuthResponse authResponse = userService.registerUser(registerRequest);
+            loginRateLimiter.succeeded(null, httpRequest.getRemoteAddr());
             return new ResponseEntity<>(authResponse, HttpStatus.CREATED);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy();
         } catch (IllegalStateException e) {
             // Catches domain mismatches or if user already exists
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new AuthResponse(null, e.getMessage()));
@@ -50,10 +67,20 @@ public class AuthController {
 
     // Login Endpoint
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> loginUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<AuthResponse> loginUser(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest httpRequest) {
+        // Throttle per account and per IP before the password is hashed
+        LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire(loginRequest.getEmail(),
+                httpRequest.getRemoteAddr());
+        if (!attempt.allowed()) {
+            return tooManyAttempts(attempt);
+        }
         try {
             AuthResponse authResponse = userService.loginUser(loginRequest);
+            loginRateLimiter.succeeded(loginRequest.getEmail(), httpRequest.getRemoteAddr());
             return ResponseEntity.ok(authResponse);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy();
         } catch (Exception e) {
             // Catches bad credentials or other login issues
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -61,17 +88,48 @@ public class AuthController {
         }
     }
 
+    // Over the per-account or per-IP attempt limit; Retry-After is the time left on that window
+    private ResponseEntity<AuthResponse> tooManyAttempts(LoginRateLimiter.Attempt attempt) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(attempt.retryAfterSeconds()))
+                .body(new AuthResponse(null, "Too many attempts. Please try again later."));
+    }
+
+    // The password hashing pool is saturated
+    private ResponseEntity<AuthResponse> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new AuthResponse(null, "Server is busy. Please try again in a moment."));
+    }
+
+    // Refresh Endpoint: exchange a refresh token for a new access/refresh pair
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refreshToken(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(userService.refreshTokens(request.get("refreshToken")));
+        } catch (Exception e) {
+            // Expired, revoked or not a refresh token
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AuthResponse(null, "Session expired. Please log in again."));
+        }
+    }
+
     // Change Password for authenticated user
     @PutMapping("/change-password")
     public ResponseEntity<Map<String, String>> changePassword(@RequestBody ChangePasswordRequest request,
             org.springframework.security.core.Authentication authentication) {
         Map<String, String> response = new HashMap<>();
         try {
-            com.edurent.crc.entity.UserEntity currentUser = (com.edurent.crc.entity.UserEntity) authentication
-                    .getPrincipal();
-            userService.changePassword(Objects.requireNonNull(currentUser), request.getCurrentPassword(),
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            com.edurent.crc.entity.UserEntity currentUser = userService
+                    .getUserById(Objects.requireNonNull(principal.getUserId()))
+                    .orElseThrow(() -> new IllegalArgumentException("User not found."));
+            // Older tokens are revoked; the session continues with the new pair
+            AuthResponse tokens = userService.changePassword(currentUser, request.getCurrentPassword(),
                     request.getNewPassword());
-            response.put("message", "Password changed successfully.");
+            response.put("message", tokens.getMessage());
+            response.put("token", tokens.getToken());
+            response.put("refreshToken", tokens.getRefreshToken());
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             response.put("message", e.getMessage());
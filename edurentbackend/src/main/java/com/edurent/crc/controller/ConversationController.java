@@ -3,6 +3,7 @@ package com.edurent.crc.controller;
 import org.springframework.lang.NonNull;
 import java.util.Objects;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +11,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -25,12 +27,14 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.edurent.crc.dto.ConversationDTO;
+import com.edurent.crc.dto.CursorPageDTO;
 import com.edurent.crc.dto.ListingDTO;
 import com.edurent.crc.dto.UserDTO;
 import com.edurent.crc.entity.ConversationEntity;
 import com.edurent.crc.entity.MessageEntity;
 import com.edurent.crc.entity.TransactionEntity;
-import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.AuthenticatedUser;
+import com.edurent.crc.security.UserPrincipalCache;
 import com.edurent.crc.repository.ReviewRepository;
 import com.edurent.crc.repository.TransactionRepository;
 import com.edurent.crc.service.ConversationService;
@@ -51,6 +55,9 @@ public class ConversationController {
     @Autowired
     private MessageImageService messageImageService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
@@ -58,15 +65,21 @@ public class ConversationController {
     private ReviewRepository reviewRepository;
 
     // --- 1. Get User's Conversations (DTO) - Optimized with batch queries ---
+    // Keyset paged: pass the X-Next-Cursor header of one window as 'cursor' for the next
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<ConversationDTO>> getConversationsForUser(
             @PathVariable @NonNull Long userId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "All") String filter,
             @RequestParam(required = false) Long listingId) {
-        List<ConversationEntity> entities = conversationService.getConversationsForUser(userId, page, size, filter,
-                listingId);
+        CursorPageDTO<ConversationEntity> window;
+        try {
+            window = conversationService.getConversationsForUser(userId, cursor, size, filter, listingId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ConversationEntity> entities = window.getContent();
 
         if (entities.isEmpty()) {
             return ResponseEntity.ok(Collections.emptyList());
@@ -108,7 +121,7 @@ public class ConversationController {
                 listingDto.setListingId(entity.getListing().getListingId());
                 listingDto.setTitle(entity.getListing().getTitle());
                 listingDto.setPrice(entity.getListing().getPrice());
-                listingDto.setStatus(entity.getListing().getStatus());
+                listingDto.setStatus(entity.getListing().getStatus().getLabel());
                 listingDto.setListingType(entity.getListing().getListingType());
 
                 if (entity.getListing().getImages() != null && !entity.getListing().getImages().isEmpty()) {
@@ -126,9 +139,7 @@ public class ConversationController {
                 dto.setListing(listingDto);
 
                 // Populate isListingSold for frontend badge display
-                String listingStatus = entity.getListing().getStatus();
-                boolean isListingSold = "Sold".equalsIgnoreCase(listingStatus)
-                        || "Rented".equalsIgnoreCase(listingStatus);
+                boolean isListingSold = entity.getListing().getStatus().isSoldOrRented();
                 dto.setListingSold(isListingSold);
 
                 // Populate archived status
@@ -165,7 +176,11 @@ public class ConversationController {
             return dto;
         }).collect(Collectors.toList());
 
-        return ResponseEntity.ok(dtos);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (window.getNextCursor() != null) {
+            response.header("X-Next-Cursor", window.getNextCursor());
+        }
+        return response.body(dtos);
     }
 
     // --- 1.5. Get Unread Counts Per Filter (for tab badges) ---
@@ -203,19 +218,29 @@ public class ConversationController {
         }
     }
 
-    // --- 3. Updated: Get Messages (With Pagination) ---
+    // --- 3. Updated: Get Messages (Keyset: pass the oldest loaded messageId as 'before') ---
     @GetMapping("/{conversationId}/messages")
     public ResponseEntity<List<com.edurent.crc.dto.MessageDTO>> getMessages(
             @PathVariable @NonNull Long conversationId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Long before,
             @RequestParam(defaultValue = "20") int size,
             Authentication authentication // Inject Authentication
     ) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
-        // Pass userId to service
-        List<MessageEntity> messages = messageService.getMessagesForConversation(conversationId,
-                Objects.requireNonNull(currentUser.getUserId()), page, size);
-        return ResponseEntity.ok(conversationMapper.toMessageDTOList(messages));
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        try {
+            // Pass userId to service
+            Slice<MessageEntity> slice = messageService.getMessagesForConversation(conversationId,
+                    Objects.requireNonNull(currentUser.getUserId()), before, size);
+
+            // Newest-first from the index; the chat window renders oldest first
+            List<MessageEntity> messages = new ArrayList<>(slice.getContent());
+            Collections.reverse(messages);
+            return ResponseEntity.ok()
+                    .header("X-Has-More", String.valueOf(slice.hasNext()))
+                    .body(conversationMapper.toMessageDTOList(messages));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // --- 4. NEW: Send Message ---
@@ -225,10 +250,10 @@ public class ConversationController {
             @RequestBody MessageEntity message,
             Authentication authentication) {
 
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             MessageEntity sentMessage = messageService.sendMessage(message, conversationId,
-                    Objects.requireNonNull(currentUser.getUserId()));
+                    userPrincipalCache.get(currentUser.getUserId()));
             return new ResponseEntity<>(conversationMapper.toMessageDTO(sentMessage), HttpStatus.CREATED);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -240,7 +265,7 @@ public class ConversationController {
     public ResponseEntity<Void> deleteConversation(
             @PathVariable @NonNull Long conversationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             conversationService.deleteConversationForUser(conversationId,
                     Objects.requireNonNull(currentUser.getUserId()));
@@ -255,7 +280,7 @@ public class ConversationController {
     public ResponseEntity<Void> archiveConversation(
             @PathVariable @NonNull Long conversationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             conversationService.toggleArchiveConversationForUser(conversationId, currentUser.getUserId());
             return ResponseEntity.ok().build();
@@ -269,7 +294,7 @@ public class ConversationController {
     public ResponseEntity<Void> markConversationAsRead(
             @PathVariable @NonNull Long conversationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             messageService.markConversationAsRead(conversationId, Objects.requireNonNull(currentUser.getUserId()));
             return ResponseEntity.ok().build();
@@ -283,7 +308,7 @@ public class ConversationController {
     public ResponseEntity<Void> markConversationAsUnread(
             @PathVariable @NonNull Long conversationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             messageService.markConversationAsUnread(conversationId, Objects.requireNonNull(currentUser.getUserId()));
             return ResponseEntity.ok().build();
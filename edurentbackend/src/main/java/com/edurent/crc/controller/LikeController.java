@@ -19,7 +19,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.edurent.crc.entity.LikeEntity;
 import com.edurent.crc.entity.ListingEntity;
-import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.AuthenticatedUser;
 import com.edurent.crc.service.LikeService;
 
 @RestController
@@ -33,7 +33,7 @@ public class LikeController {
     // Get Liked Listings for Current User
     @GetMapping("/my-likes")
     public ResponseEntity<List<ListingEntity>> getMyLikedListings(Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         List<ListingEntity> likedListings = likeService
                 .getLikedListings(Objects.requireNonNull(currentUser.getUserId()));
         return ResponseEntity.ok(likedListings);
@@ -44,7 +44,7 @@ public class LikeController {
     public ResponseEntity<LikeEntity> likeListing(
             @PathVariable @NonNull Long listingId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             LikeEntity newLike = likeService.likeListing(Objects.requireNonNull(currentUser.getUserId()), listingId);
             return new ResponseEntity<>(newLike, HttpStatus.CREATED);
@@ -59,7 +59,7 @@ public class LikeController {
     public ResponseEntity<Void> unlikeListing(
             @PathVariable @NonNull Long listingId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             likeService.unlikeListing(Objects.requireNonNull(currentUser.getUserId()), listingId);
             return ResponseEntity.noContent().build(); // 204 No Content
@@ -9,18 +9,26 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.edurent.crc.dto.CursorPageDTO;
+import com.edurent.crc.dto.ListingCardDTO;
 import com.edurent.crc.dto.ListingDTO;
+import com.edurent.crc.dto.ListingFilterDTO;
+import com.edurent.crc.dto.ListingFilterResultDTO;
 import com.edurent.crc.entity.ListingEntity;
-import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.AuthenticatedUser;
 import com.edurent.crc.mapper.ListingMapper;
 import com.edurent.crc.service.ListingService;
+import com.edurent.crc.service.SerializedPage;
 
 @RestController
 @RequestMapping("/api/v1/listings")
@@ -35,11 +43,179 @@ public class ListingController {
 
     // Retrieves a list of all available listings (Hides Inactive by default)
     @GetMapping
-    public Page<ListingDTO> getAllListings(
+    public ResponseEntity<byte[]> getAllListings(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return toCachedResponse(listingService.getAllListingsSerialized(page, size), ifNoneMatch, acceptEncoding);
+    }
+
+    // --- Card Feeds ---
+    // Compact payload for browse grids (title, price, status, cover image, seller).
+    // Open the full listing via GET /{listingId} when a card is selected.
+
+    @GetMapping("/cards")
+    public ResponseEntity<byte[]> getAllListingCards(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return toCachedResponse(listingService.getAllListingCards(page, size), ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/category/{categoryId}/cards")
+    public ResponseEntity<byte[]> getListingCardsByCategoryId(
+            @PathVariable @NonNull Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return toCachedResponse(listingService.getListingCardsByCategoryId(categoryId, page, size), ifNoneMatch,
+                acceptEncoding);
+    }
+
+    @GetMapping("/type/{listingType}/cards")
+    public ResponseEntity<Page<ListingCardDTO>> getListingCardsByType(
+            @PathVariable String listingType,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<ListingEntity> entities = listingService.getAllListings(page, size);
-        return listingMapper.toDTOPage(entities);
+        String formattedType = listingType.equalsIgnoreCase("rent") ? "For Rent"
+                : listingType.equalsIgnoreCase("sale") ? "For Sale" : listingType;
+        return ResponseEntity.ok(listingService.getListingCardsByType(formattedType, page, size));
+    }
+
+    // Writes a pre-serialized page: 304 when the client copy is current, otherwise
+    // the stored gzip or plain bytes (Tomcat skips compressing encoded bodies).
+    // Both vary by Accept-Encoding so shared caches keep the encodings apart.
+    private ResponseEntity<byte[]> toCachedResponse(SerializedPage<?> cached, String ifNoneMatch,
+            String acceptEncoding) {
+        boolean gzip = cached.getGzipped() != null && SerializedPage.acceptsGzip(acceptEncoding);
+        if (cached.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(cached.getEtag(gzip))
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.getEtag(gzip))
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.getGzipped());
+        }
+        return response.body(cached.getJson());
+    }
+
+    // --- Cursor (Keyset) Feeds for Infinite Scroll ---
+    // Pass the 'nextCursor' from the previous response to load the next window.
+    // These skip the total count; use the paged endpoints above when totals are needed.
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ListingDTO>> scrollAllListings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(listingService.toDTOCursorPage(
+                    listingService.getAllListingsByCursor(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/category/{categoryId}/scroll")
+    public ResponseEntity<CursorPageDTO<ListingDTO>> scrollListingsByCategoryId(
+            @PathVariable @NonNull Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(listingService.toDTOCursorPage(
+                    listingService.getListingsByCategoryIdByCursor(categoryId, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/type/{listingType}/scroll")
+    public ResponseEntity<CursorPageDTO<ListingDTO>> scrollListingsByType(
+            @PathVariable String listingType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        String formattedType = listingType.equalsIgnoreCase("rent") ? "For Rent"
+                : listingType.equalsIgnoreCase("sale") ? "For Sale" : listingType;
+        try {
+            return ResponseEntity.ok(listingService.toDTOCursorPage(
+                    listingService.getListingsByTypeByCursor(formattedType, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorPageDTO<ListingDTO>> scrollListingsByUserId(
+            @PathVariable @NonNull Long userId,
+            @RequestParam(required = false) String statusGroup, // "active", "sold", or null (default)
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(listingService.toDTOCursorPage(
+                    listingService.getListingsByUserIdByCursor(userId, statusGroup, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Combined filter with facet counts; every parameter is optional
+    @GetMapping("/filter")
+    public ResponseEntity<ListingFilterResultDTO> filterListings(
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String condition,
+            @RequestParam(required = false) String listingType, // "rent", "sale" or the stored value
+            @RequestParam(required = false) Boolean allowMeetup,
+            @RequestParam(required = false) Boolean allowDelivery,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long schoolId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ListingFilterDTO filter = new ListingFilterDTO();
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        filter.setCondition(condition);
+        if (listingType != null) {
+            filter.setListingType(listingType.equalsIgnoreCase("rent") ? "For Rent"
+                    : listingType.equalsIgnoreCase("sale") ? "For Sale" : listingType);
+        }
+        filter.setAllowMeetup(allowMeetup);
+        filter.setAllowDelivery(allowDelivery);
+        filter.setCategoryId(categoryId);
+        filter.setSchoolId(schoolId);
+
+        try {
+            return ResponseEntity.ok(listingService.filterListings(filter, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Full-text search over title, description and condition (ranked, paged)
+    @GetMapping("/search")
+    public ResponseEntity<Page<ListingDTO>> searchListings(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Page<ListingEntity> entities = listingService.searchListings(query, page, size);
+            return ResponseEntity.ok(listingService.toDTOPage(entities));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Fetches a single listing by ID (Numeric or UUID)
@@ -72,20 +248,23 @@ public class ListingController {
     ) {
         Page<ListingEntity> entities = listingService.getListingsByUserId(userId, page, size, includeInactive,
                 statusGroup, listingType);
-        return ResponseEntity.ok(listingMapper.toDTOPage(entities));
+        return ResponseEntity.ok(listingService.toDTOPage(entities));
     }
 
     // Retrieves listings by category
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<ListingDTO>> getListingsByCategoryId(
+    public ResponseEntity<byte[]> getListingsByCategoryId(
             @PathVariable @NonNull Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<ListingEntity> entities = listingService.getListingsByCategoryId(categoryId, page, size);
-        if (entities.isEmpty()) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SerializedPage<Page<ListingDTO>> listings = listingService.getListingsByCategoryIdSerialized(categoryId, page,
+                size);
+        if (listings.getValue().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(listingMapper.toDTOPage(entities));
+        return toCachedResponse(listings, ifNoneMatch, acceptEncoding);
     }
 
     // Filters listings by type (Rent/Sale)
@@ -98,7 +277,7 @@ public class ListingController {
                 : listingType.equalsIgnoreCase("sale") ? "For Sale" : listingType;
 
         Page<ListingEntity> entities = listingService.getListingsByType(formattedType, page, size);
-        return ResponseEntity.ok(listingMapper.toDTOPage(entities));
+        return ResponseEntity.ok(listingService.toDTOPage(entities));
     }
 
     // Creates a new listing with image upload support
@@ -116,7 +295,7 @@ public class ListingController {
             @RequestParam("allowDelivery") Boolean allowDelivery,
             @RequestParam(value = "deliveryOptions", required = false) String deliveryOptions,
             @RequestPart(value = "images", required = false) List<MultipartFile> images) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         Long userId = currentUser.getUserId();
 
         ListingEntity newListing = new ListingEntity();
@@ -159,7 +338,7 @@ public class ListingController {
             @RequestParam(value = "imagesToDelete", required = false) List<Long> imagesToDelete,
             @RequestPart(value = "images", required = false) List<MultipartFile> newImages) {
         try {
-            UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
             ListingEntity listingUpdateData = new ListingEntity();
             listingUpdateData.setTitle(title);
@@ -197,7 +376,7 @@ public class ListingController {
             @PathVariable String listingId,
             @RequestParam String status,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             Long id;
             try {
@@ -228,7 +407,7 @@ public class ListingController {
             @PathVariable String listingId,
             Authentication authentication) {
         try {
-            UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long id;
             try {
                 id = Long.parseLong(listingId);
@@ -4,6 +4,7 @@ import org.springframework.lang.NonNull;
 import java.util.Objects;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -19,8 +20,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.edurent.crc.dto.CursorPageDTO;
 import com.edurent.crc.entity.NotificationEntity;
-import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.AuthenticatedUser;
 import com.edurent.crc.service.NotificationService;
 
 @RestController
@@ -32,36 +34,50 @@ public class NotificationController {
     private NotificationService notificationService;
 
     // --- UPDATED: Secure endpoint to get *only* the logged-in user's notifications
-    // ---
+    // (Keyset: newest first, pass the X-Next-Cursor header of one window as 'cursor' for the next) ---
     @GetMapping("/my-notifications")
     public ResponseEntity<List<NotificationEntity>> getMyNotifications(
             Authentication authentication, // Get user from token
-            @RequestParam(required = false) Boolean unread) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+            @RequestParam(required = false) Boolean unread,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         Long userId = Objects.requireNonNull(currentUser.getUserId());
 
-        List<NotificationEntity> notifications;
-        if (Boolean.TRUE.equals(unread)) {
-            notifications = notificationService.getUnreadNotificationsForUser(userId);
-        } else {
-            notifications = notificationService.getNotificationsForUser(userId);
-        }
-
         // NOTE: Notification preferences control whether NEW notifications are created,
         // not whether existing notifications are visible. All existing notifications
         // should be returned regardless of current preference settings.
         // Filtering is intentionally NOT applied here.
-
-        return ResponseEntity.ok(notifications);
+        try {
+            CursorPageDTO<NotificationEntity> window = notificationService.getNotificationsForUser(userId,
+                    Boolean.TRUE.equals(unread), cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header("X-Has-More", String.valueOf(window.isHasNext()));
+            if (window.getNextCursor() != null) {
+                response.header("X-Next-Cursor", window.getNextCursor());
+            }
+            return response.body(window.getContent());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     // --- END UPDATED Endpoint ---
 
+    // --- NEW ENDPOINT: Unread Count (header badge) ---
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        long count = notificationService.getUnreadCount(Objects.requireNonNull(currentUser.getUserId()));
+        return ResponseEntity.ok(Map.of("count", count));
+    }
+    // --- END NEW ENDPOINT ---
+
     // --- UPDATED: Securely mark one as read ---
     @PutMapping("/{notificationId}/read")
     public ResponseEntity<NotificationEntity> markAsRead(
             @PathVariable @NonNull Long notificationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             // Pass user ID to the service for ownership check
             NotificationEntity updatedNotification = notificationService.markAsRead(notificationId,
@@ -77,7 +93,7 @@ public class NotificationController {
     // --- NEW ENDPOINT: Mark All as Read ---
     @PutMapping("/read-all")
     public ResponseEntity<Void> markAllAsRead(Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             notificationService.markAllAsRead(Objects.requireNonNull(currentUser.getUserId()));
             return ResponseEntity.ok().build();
@@ -92,7 +108,7 @@ public class NotificationController {
     public ResponseEntity<Void> deleteNotification(
             @PathVariable @NonNull Long notificationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             // Pass user ID for ownership check
             notificationService.deleteNotification(notificationId, Objects.requireNonNull(currentUser.getUserId()));
@@ -110,7 +126,7 @@ public class NotificationController {
     public ResponseEntity<NotificationEntity> markAsUnread(
             @PathVariable @NonNull Long notificationId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             // Pass user ID to the service for ownership check
             NotificationEntity updatedNotification = notificationService.markAsUnread(notificationId,
@@ -21,7 +21,7 @@ import org.springframework.data.domain.Page;
 
 import com.edurent.crc.dto.ReviewDTO;
 import com.edurent.crc.entity.ReviewEntity;
-import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.AuthenticatedUser;
 import com.edurent.crc.service.ReviewService;
 import com.edurent.crc.mapper.ReviewMapper;
 
@@ -101,7 +101,7 @@ public class ReviewController {
             @RequestParam(required = false) List<Long> imagesToDelete, // New param
             @RequestPart(value = "newImages", required = false) List<MultipartFile> newImages, // New param
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             ReviewEntity updated = reviewService.updateReview(
                     reviewId,
@@ -121,7 +121,7 @@ public class ReviewController {
     public ResponseEntity<Void> deleteReview(
             @PathVariable Long reviewId,
             Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
         try {
             reviewService.deleteReview(reviewId, currentUser.getUserId());
             return ResponseEntity.noContent().build();
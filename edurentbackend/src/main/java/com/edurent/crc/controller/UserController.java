@@ -28,6 +28,8 @@ import com.edurent.crc.dto.UpdateUserRequest;
 import com.edurent.crc.dto.UserDTO;
 import com.edurent.crc.service.UserService;
 import com.edurent.crc.mapper.ListingMapper;
+import com.edurent.crc.security.AuthenticatedUser;
+import com.edurent.crc.security.UserPrincipalCache;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -36,18 +38,21 @@ public class UserController {
 
     private final UserService userService;
     private final ListingMapper listingMapper;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Autowired
-    public UserController(UserService userService, ListingMapper listingMapper) {
+    public UserController(UserService userService, ListingMapper listingMapper,
+            UserPrincipalCache userPrincipalCache) {
         this.userService = userService;
         this.listingMapper = listingMapper;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     // Example endpoint to get the currently authenticated user
     @GetMapping("/me")
     public ResponseEntity<UserDTO> getMyProfile(Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
-        return ResponseEntity.ok(listingMapper.toUserDTO(currentUser));
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(listingMapper.toUserDTO(userPrincipalCache.get(currentUser.getUserId())));
     }
 
     // Get All Users
@@ -81,7 +86,7 @@ public class UserController {
     // Delete User by ID (Secured: Users can only delete their own account)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable @NonNull Long id, Authentication authentication) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
         if (!currentUser.getUserId().equals(id)) {
             // Log this security event if you have a logger
@@ -96,16 +101,19 @@ public class UserController {
     @PutMapping("/me")
     public ResponseEntity<UserDTO> updateMyProfile(Authentication authentication,
             @RequestBody UpdateUserRequest request) {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
-        UserEntity updated = userService.updateCurrentUser(Objects.requireNonNull(currentUser), request);
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        // Fresh copy: cached users are shared and must not be modified
+        UserEntity user = userService.getUserById(Objects.requireNonNull(currentUser.getUserId()))
+                .orElseThrow(() -> new RuntimeException("User not found: " + currentUser.getUserId()));
+        UserEntity updated = userService.updateCurrentUser(user, request);
         return ResponseEntity.ok(listingMapper.toUserDTO(updated));
     }
 
     @PostMapping("/me/image")
     public ResponseEntity<String> uploadProfileImage(Authentication authentication,
             @RequestParam("file") MultipartFile file) throws IOException {
-        UserEntity currentUser = (UserEntity) authentication.getPrincipal();
-        String imageUrl = userService.uploadProfilePicture(Objects.requireNonNull(currentUser), file);
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        String imageUrl = userService.uploadProfilePicture(userPrincipalCache.get(currentUser.getUserId()), file);
         return ResponseEntity.ok(imageUrl);
     }
 }
@@ -4,6 +4,7 @@ package com.edurent.crc.dto;
 public class AuthResponse {
 
     private String token;
+    private String refreshToken;
     private String message;
 
     // No-argument constructor
@@ -16,11 +17,22 @@ public class AuthResponse {
         this.message = message;
     }
 
+    // Access token plus the refresh token used to renew it
+    public AuthResponse(String token, String refreshToken, String message) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.message = message;
+    }
+
     // Getters
     public String getToken() {
         return token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -30,6 +42,10 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public void setMessage(String message) {
         this.message = message;
     }
@@ -0,0 +1,66 @@
+package com.edurent.crc.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// One window of a keyset-paginated feed.
+// 'nextCursor' is an opaque token to pass back for the following window;
+// it is null when there is nothing more to load. No total count is computed.
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+
+    // Constructors
+    public CursorPageDTO() {
+    }
+
+    public CursorPageDTO(List<T> content, String nextCursor, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = size;
+    }
+
+    // Converts the content while keeping the cursor (e.g. entity -> DTO)
+    public <R> CursorPageDTO<R> map(Function<? super T, ? extends R> converter) {
+        List<R> mapped = content.stream().map(converter).collect(Collectors.toList());
+        return new CursorPageDTO<>(mapped, nextCursor, size);
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,44 @@
+package com.edurent.crc.dto;
+
+// One bucket of a facet: the filter value to send back, a display label and
+// how many listings match it given the other active filters.
+public class FacetCountDTO {
+    private String value;
+    private String label;
+    private long count;
+
+    // Constructors
+    public FacetCountDTO() {
+    }
+
+    public FacetCountDTO(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,141 @@
+package com.edurent.crc.dto;
+
+import java.time.LocalDateTime;
+
+import com.edurent.crc.entity.ListingStatus;
+
+// Compact listing for browse grids: only what a card renders.
+// Filled directly by a JPQL constructor expression in ListingRepository, so no
+// entity, seller profile, image set or transaction list is loaded.
+public class ListingCardDTO {
+    private Long listingId;
+    private String publicId;
+    private String title;
+    private String listingType;
+    private Double price;
+    private String rentPeriod;
+    private String status;
+    private LocalDateTime createdAt;
+    private String coverImageUrl;
+    private Long sellerId;
+    private String sellerName;
+    private String sellerProfilePictureUrl;
+
+    // Constructors
+    public ListingCardDTO() {
+    }
+
+    public ListingCardDTO(Long listingId, String publicId, String title, String listingType, Double price,
+            String rentPeriod, ListingStatus status, LocalDateTime createdAt, String coverImageUrl, Long sellerId,
+            String sellerName, String sellerProfilePictureUrl) {
+        this.listingId = listingId;
+        this.publicId = publicId;
+        this.title = title;
+        this.listingType = listingType;
+        this.price = price;
+        this.rentPeriod = rentPeriod;
+        this.status = status == null ? null : status.getLabel();
+        this.createdAt = createdAt;
+        this.coverImageUrl = coverImageUrl;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+        this.sellerProfilePictureUrl = sellerProfilePictureUrl;
+    }
+
+    // Getters and Setters
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public String getPublicId() {
+        return publicId;
+    }
+
+    public void setPublicId(String publicId) {
+        this.publicId = publicId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getListingType() {
+        return listingType;
+    }
+
+    public void setListingType(String listingType) {
+        this.listingType = listingType;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getRentPeriod() {
+        return rentPeriod;
+    }
+
+    public void setRentPeriod(String rentPeriod) {
+        this.rentPeriod = rentPeriod;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCoverImageUrl() {
+        return coverImageUrl;
+    }
+
+    public void setCoverImageUrl(String coverImageUrl) {
+        this.coverImageUrl = coverImageUrl;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public void setSellerName(String sellerName) {
+        this.sellerName = sellerName;
+    }
+
+    public String getSellerProfilePictureUrl() {
+        return sellerProfilePictureUrl;
+    }
+
+    public void setSellerProfilePictureUrl(String sellerProfilePictureUrl) {
+        this.sellerProfilePictureUrl = sellerProfilePictureUrl;
+    }
+}
@@ -0,0 +1,83 @@
+package com.edurent.crc.dto;
+
+// Combined browse filter. Every field is optional; null means "any".
+public class ListingFilterDTO {
+
+    private Double minPrice;
+    private Double maxPrice;
+    private String condition;
+    private String listingType;
+    private Boolean allowMeetup;
+    private Boolean allowDelivery;
+    private Long categoryId;
+    private Long schoolId;
+
+    // Constructors
+    public ListingFilterDTO() {
+    }
+
+    // Getters and Setters
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+
+    public String getListingType() {
+        return listingType;
+    }
+
+    public void setListingType(String listingType) {
+        this.listingType = listingType;
+    }
+
+    public Boolean getAllowMeetup() {
+        return allowMeetup;
+    }
+
+    public void setAllowMeetup(Boolean allowMeetup) {
+        this.allowMeetup = allowMeetup;
+    }
+
+    public Boolean getAllowDelivery() {
+        return allowDelivery;
+    }
+
+    public void setAllowDelivery(Boolean allowDelivery) {
+        this.allowDelivery = allowDelivery;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+}
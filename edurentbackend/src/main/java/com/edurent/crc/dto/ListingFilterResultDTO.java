@@ -0,0 +1,39 @@
+package com.edurent.crc.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+
+// Filtered browse page plus facet counts keyed by dimension
+// ("condition", "listingType", "category", "school", "allowMeetup", "allowDelivery").
+public class ListingFilterResultDTO {
+    private Page<ListingDTO> listings;
+    private Map<String, List<FacetCountDTO>> facets;
+
+    // Constructors
+    public ListingFilterResultDTO() {
+    }
+
+    public ListingFilterResultDTO(Page<ListingDTO> listings, Map<String, List<FacetCountDTO>> facets) {
+        this.listings = listings;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public Page<ListingDTO> getListings() {
+        return listings;
+    }
+
+    public void setListings(Page<ListingDTO> listings) {
+        this.listings = listings;
+    }
+
+    public Map<String, List<FacetCountDTO>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCountDTO>> facets) {
+        this.facets = facets;
+    }
+}
@@ -46,6 +46,20 @@ public class ConversationEntity {
     @JsonIgnore
     private Set<MessageEntity> messages;
 
+    // --- Inbox summary of the latest message (written by MessageService.sendMessage) ---
+    // Not updatable through the entity so a stale copy can never overwrite a newer summary
+    @Column(name = "last_message_id", updatable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 2000, updatable = false)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at", updatable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_message_sender_id", updatable = false)
+    private Long lastMessageSenderId;
+
     // --- NEW: Transient fields for frontend display ---
     @Transient
     private String lastMessageContent;
@@ -98,6 +112,22 @@ public class ConversationEntity {
         this.messages = messages;
     }
 
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public Long getLastMessageSenderId() {
+        return lastMessageSenderId;
+    }
+
     // --- NEW: Getters/Setters for transient fields ---
 
     public boolean getIsUnread() {
@@ -46,6 +46,20 @@ public class ConversationParticipantEntity {
     @Column(name = "last_deleted_at")
     private LocalDateTime lastDeletedAt;
 
+    // --- Unread tracking (maintained by atomic UPDATEs in ConversationParticipantRepository) ---
+    // Messages from others since this user last read the conversation
+    @Column(name = "unread_count", columnDefinition = "integer not null default 0", updatable = false)
+    private int unreadCount = 0;
+
+    @Column(name = "last_read_message_id", updatable = false)
+    private Long lastReadMessageId;
+
+    // Inbox sort key for this user: latest visible message, clear point, or
+    // listing date for an empty chat (idx_participant_inbox). Moved forward
+    // only by the atomic UPDATEs in ConversationParticipantRepository.
+    @Column(name = "last_activity_at", updatable = false)
+    private LocalDateTime lastActivityAt;
+
     // Constructors
     public ConversationParticipantEntity() {
     }
@@ -106,6 +120,22 @@ public class ConversationParticipantEntity {
         this.lastDeletedAt = lastDeletedAt; 
     }
 
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public Long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
     // -------------------------------
 
     // equals, hashCode, toString (use id)
@@ -14,6 +14,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -35,7 +36,12 @@ import jakarta.persistence.Version;
         @Index(name = "idx_listing_status", columnList = "status"),
         @Index(name = "idx_listing_user", columnList = "user_id"),
         @Index(name = "idx_listing_category", columnList = "category_id"),
-        @Index(name = "idx_listing_public_id", columnList = "public_id")
+        @Index(name = "idx_listing_public_id", columnList = "public_id"),
+        // Keyset feeds use the partial (created_at DESC, listing_id DESC) indexes in IndexMigration
+        // Combined filter: price ranges and equality facets within the public statuses
+        @Index(name = "idx_listing_status_price", columnList = "status, price"),
+        @Index(name = "idx_listing_status_type_price", columnList = "status, listing_type, price"),
+        @Index(name = "idx_listing_status_condition", columnList = "status, condition")
 })
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @NamedEntityGraphs({
@@ -86,7 +92,8 @@ public class ListingEntity {
     private String rentPeriod;
 
     @Column(nullable = false)
-    private String status = "Available";
+    @Convert(converter = ListingStatusConverter.class)
+    private ListingStatus status = ListingStatus.AVAILABLE;
 
     @Column(name = "allow_meetup")
     private Boolean allowMeetup = true;
@@ -195,11 +202,11 @@ public class ListingEntity {
         this.rentPeriod = rentPeriod;
     }
 
-    public String getStatus() {
+    public ListingStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(ListingStatus status) {
         this.status = status;
     }
 
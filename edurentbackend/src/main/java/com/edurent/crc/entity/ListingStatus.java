@@ -0,0 +1,77 @@
+package com.edurent.crc.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Lifecycle status of a listing, stored as a small integer code
+ * (see ListingStatusConverter). Codes are ordered so the status groups used
+ * by browse and profile queries are contiguous ranges that a single
+ * BETWEEN on idx_listing_status can answer.
+ */
+public enum ListingStatus {
+
+    AVAILABLE((short) 0, "Available"),
+    RENTED((short) 1, "Rented"),
+    SOLD((short) 2, "Sold"),
+    INACTIVE((short) 3, "Inactive");
+
+    // Inclusive code ranges for the query groups
+    public static final Range PUBLIC = new Range(AVAILABLE, RENTED); // Browse, categories, search
+    public static final Range PROFILE = new Range(AVAILABLE, SOLD); // Public profile incl. sold history
+    public static final Range SOLD_ONLY = new Range(SOLD, SOLD);
+    public static final Range SOLD_OR_RENTED = new Range(RENTED, SOLD); // Conversation "Sold"/"Purchased" tabs
+
+    private final short code;
+    private final String label;
+
+    ListingStatus(short code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    // Display value, kept identical to the old string column for API clients
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isPublic() {
+        return PUBLIC.contains(this);
+    }
+
+    // Sold or currently rented out (badges and conversation filters)
+    public boolean isSoldOrRented() {
+        return SOLD_OR_RENTED.contains(this);
+    }
+
+    public static ListingStatus fromCode(short code) {
+        for (ListingStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown listing status code: " + code);
+    }
+
+    // Accepts any casing of the label or constant name ("Sold", "SOLD", "sold")
+    public static ListingStatus fromLabel(String value) {
+        if (value != null) {
+            for (ListingStatus status : values()) {
+                if (status.label.equalsIgnoreCase(value.trim())) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown listing status: " + value);
+    }
+
+    public record Range(ListingStatus from, ListingStatus to) {
+        public boolean contains(ListingStatus status) {
+            return status != null && status.code >= from.code && status.code <= to.code;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.edurent.crc.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores ListingStatus as its smallint code instead of a mixed-case string
+@Converter
+public class ListingStatusConverter implements AttributeConverter<ListingStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ListingStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public ListingStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : ListingStatus.fromCode(code);
+    }
+}
@@ -18,7 +18,8 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "messages", indexes = {
-        @Index(name = "idx_message_conversation", columnList = "conversation_id"),
+        // Keyset history and latest-message lookups (leading column also serves plain conversation_id filters)
+        @Index(name = "idx_message_conversation_sent_at", columnList = "conversation_id, sent_at, message_id"),
         @Index(name = "idx_message_sent_at", columnList = "sent_at")
 })
 public class MessageEntity {
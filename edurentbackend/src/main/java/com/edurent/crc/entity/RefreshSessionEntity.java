@@ -0,0 +1,90 @@
+package com.edurent.crc.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// One login (device) holding a refresh token. Each refresh advances 'generation',
+// so only the most recently issued refresh token of the session is accepted.
+@Entity
+@Table(name = "refresh_sessions")
+public class RefreshSessionEntity {
+
+    @Id
+    @Column(name = "session_id", length = 36)
+    private String sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "generation", nullable = false)
+    private int generation = 0;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    // Time of the last refresh (start of the reuse grace window); null until the first one
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    // Constructors
+    public RefreshSessionEntity() {
+    }
+
+    public RefreshSessionEntity(String sessionId, Long userId, Instant expiresAt) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getRotatedAt() {
+        return rotatedAt;
+    }
+
+    public void setRotatedAt(Instant rotatedAt) {
+        this.rotatedAt = rotatedAt;
+    }
+}
@@ -21,6 +21,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.NamedAttributeNode;
@@ -29,7 +30,10 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Listing filter by seller's school
+        @Index(name = "idx_user_school", columnList = "school_id")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @NamedEntityGraph(name = "User.withSchool", attributeNodes = @NamedAttributeNode("school"))
 public class UserEntity implements UserDetails {
@@ -60,6 +64,11 @@ public class UserEntity implements UserDetails {
     @JsonIgnore
     private String passwordHash; // This is our "password" for Spring Security
 
+    // Embedded in every JWT ("ver"); bumping it revokes all tokens issued before
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer not null default 0")
+    @JsonIgnore
+    private int tokenVersion;
+
     @Column(name = "profile_picture_url")
     private String profilePictureUrl;
 
@@ -195,6 +204,14 @@ public class UserEntity implements UserDetails {
         this.passwordHash = passwordHash;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public String getProfilePictureUrl() {
         return profilePictureUrl;
     }
@@ -35,6 +35,43 @@ public class ListingMapper {
             return null;
         }
 
+        ListingDTO dto = toDTOWithoutCollections(entity);
+
+        // Map Images
+        if (entity.getImages() != null && !entity.getImages().isEmpty()) {
+            dto.setImages(toImageDTOList(entity.getImages()));
+        } else {
+            dto.setImages(Collections.emptyList());
+        }
+
+        // Map Transactions
+        if (entity.getTransactions() != null && !entity.getTransactions().isEmpty()) {
+            dto.setTransactions(toTransactionDTOList(entity.getTransactions()));
+        } else {
+            dto.setTransactions(Collections.emptyList());
+        }
+
+        return dto;
+    }
+
+    /**
+     * Converts a ListingEntity using images and transactions that were
+     * batch-loaded for a whole page, so the lazy collections are never touched.
+     */
+    public ListingDTO toDTO(ListingEntity entity, List<ListingImageEntity> images,
+            List<TransactionEntity> transactions) {
+        if (entity == null) {
+            return null;
+        }
+
+        ListingDTO dto = toDTOWithoutCollections(entity);
+        dto.setImages(images == null ? Collections.emptyList()
+                : images.stream().map(this::toImageDTO).collect(Collectors.toList()));
+        dto.setTransactions(toTransactionDTOList(transactions));
+        return dto;
+    }
+
+    private ListingDTO toDTOWithoutCollections(ListingEntity entity) {
         ListingDTO dto = new ListingDTO();
         dto.setListingId(entity.getListingId());
         dto.setPublicId(entity.getPublicId());
@@ -44,7 +81,7 @@ public class ListingMapper {
         dto.setListingType(entity.getListingType());
         dto.setPrice(entity.getPrice());
         dto.setRentPeriod(entity.getRentPeriod());
-        dto.setStatus(entity.getStatus());
+        dto.setStatus(entity.getStatus() != null ? entity.getStatus().getLabel() : null);
         dto.setAllowMeetup(entity.getAllowMeetup());
         dto.setMeetupLocation(entity.getMeetupLocation());
         dto.setAllowDelivery(entity.getAllowDelivery());
@@ -62,20 +99,6 @@ public class ListingMapper {
             dto.setCategory(toCategoryDTO(entity.getCategory()));
         }
 
-        // Map Images
-        if (entity.getImages() != null && !entity.getImages().isEmpty()) {
-            dto.setImages(toImageDTOList(entity.getImages()));
-        } else {
-            dto.setImages(Collections.emptyList());
-        }
-
-        // Map Transactions
-        if (entity.getTransactions() != null && !entity.getTransactions().isEmpty()) {
-            dto.setTransactions(toTransactionDTOList(entity.getTransactions()));
-        } else {
-            dto.setTransactions(Collections.emptyList());
-        }
-
         return dto;
     }
 
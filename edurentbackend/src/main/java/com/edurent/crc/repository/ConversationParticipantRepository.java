@@ -1,8 +1,12 @@
 package com.edurent.crc.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.edurent.crc.entity.ConversationParticipantEntity;
@@ -11,13 +15,142 @@ import com.edurent.crc.entity.ConversationParticipantIdEntity;
 @Repository
 public interface ConversationParticipantRepository
         extends JpaRepository<ConversationParticipantEntity, ConversationParticipantIdEntity> { // Updated
-    @org.springframework.data.jpa.repository.Query("SELECT p FROM ConversationParticipantEntity p " +
+    @Query("SELECT p FROM ConversationParticipantEntity p " +
             "LEFT JOIN FETCH p.conversation c " +
             "LEFT JOIN FETCH c.listing l " +
             "LEFT JOIN FETCH l.user " +
             "WHERE p.id.userId = :userId AND p.isDeleted = false")
-    List<ConversationParticipantEntity> findById_UserIdAndIsDeletedFalse(
-            @org.springframework.data.repository.query.Param("userId") Long userId);
+    List<ConversationParticipantEntity> findById_UserIdAndIsDeletedFalse(@Param("userId") Long userId);
 
     List<ConversationParticipantEntity> findById_ConversationId(Long conversationId);
+
+    /**
+     * One inbox window, newest activity first, after the (beforeAt, beforeId)
+     * keyset position. Walks idx_participant_inbox in order and stops after
+     * :limit matching rows, so the cost follows the page size rather than the
+     * inbox size. Rows: [conversationId, lastMessageContent, lastActivityAt,
+     * isUnread, isArchived]. Null seller/sold/listingId mean "any".
+     */
+    @Query(value = """
+            SELECT p.conversation_id,
+                   CASE WHEN c.last_message_at IS NULL THEN NULL
+                        WHEN p.last_deleted_at IS NULL OR c.last_message_at > p.last_deleted_at
+                            THEN c.last_message_preview
+                        ELSE 'Chat cleared' END AS last_content,
+                   p.last_activity_at,
+                   (p.unread_count > 0
+                        AND c.last_message_at IS NOT NULL
+                        AND (p.last_deleted_at IS NULL OR c.last_message_at > p.last_deleted_at)) AS is_unread,
+                   p.is_archived
+            FROM conversation_participants p
+            JOIN conversations c ON c.conversation_id = p.conversation_id
+            LEFT JOIN listings l ON l.listing_id = c.listing_id
+            WHERE p.user_id = :userId AND p.is_archived = :archived AND p.is_deleted = false
+              AND (p.last_activity_at < :beforeAt
+                   OR (p.last_activity_at = :beforeAt AND p.conversation_id < :beforeId))
+              AND (CAST(:listingId AS bigint) IS NULL OR c.listing_id = CAST(:listingId AS bigint))
+              AND (CAST(:seller AS boolean) IS NULL OR (l.user_id = :userId) = CAST(:seller AS boolean))
+              AND (CAST(:sold AS boolean) IS NULL
+                   OR (l.status BETWEEN :soldFrom AND :soldTo) = CAST(:sold AS boolean))
+              AND (:unreadOnly = false
+                   OR (p.unread_count > 0
+                       AND c.last_message_at IS NOT NULL
+                       AND (p.last_deleted_at IS NULL OR c.last_message_at > p.last_deleted_at)))
+            ORDER BY p.last_activity_at DESC, p.conversation_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findInboxPage(
+            @Param("userId") Long userId,
+            @Param("listingId") Long listingId,
+            @Param("archived") boolean archived,
+            @Param("seller") Boolean seller,
+            @Param("sold") Boolean sold,
+            @Param("unreadOnly") boolean unreadOnly,
+            @Param("soldFrom") short soldFrom,
+            @Param("soldTo") short soldTo,
+            @Param("beforeAt") LocalDateTime beforeAt,
+            @Param("beforeId") Long beforeId,
+            @Param("limit") int limit);
+
+    /**
+     * The user's visible conversations with unread messages, with the flags
+     * that decide their inbox tab (idx_participant_user_unread).
+     * Rows: [conversationId, listingId, isArchived, isSeller, isSold].
+     */
+    @Query(value = """
+            SELECT p.conversation_id,
+                   c.listing_id,
+                   p.is_archived,
+                   (l.user_id = :userId) AS is_seller,
+                   (l.status BETWEEN :soldFrom AND :soldTo) AS is_sold
+            FROM conversation_participants p
+            JOIN conversations c ON c.conversation_id = p.conversation_id
+            LEFT JOIN listings l ON l.listing_id = c.listing_id
+            WHERE p.user_id = :userId AND p.is_deleted = false AND p.unread_count > 0
+              AND c.last_message_at IS NOT NULL
+              AND (p.last_deleted_at IS NULL OR c.last_message_at > p.last_deleted_at)
+            """, nativeQuery = true)
+    List<Object[]> findUnreadConversations(
+            @Param("userId") Long userId,
+            @Param("soldFrom") short soldFrom,
+            @Param("soldTo") short soldTo);
+
+    // --- Unread counters (atomic, so concurrent sends never lose an increment) ---
+
+    /**
+     * All participant upkeep for a new message in one statement: restores the
+     * chat for anyone who deleted or archived it (last_deleted_at is kept, so
+     * cleared history stays hidden), counts the message as unread for everyone
+     * but the sender and moves the sender's read marker to it.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_participants
+            SET is_deleted = false,
+                is_archived = false,
+                unread_count = CASE WHEN user_id = :senderId THEN 0 ELSE unread_count + 1 END,
+                last_read_message_id = CASE WHEN user_id = :senderId THEN :messageId ELSE last_read_message_id END,
+                last_activity_at = GREATEST(COALESCE(last_activity_at, :sentAt), :sentAt)
+            WHERE conversation_id = :conversationId
+            """, nativeQuery = true)
+    int recordNewMessage(@Param("conversationId") Long conversationId, @Param("senderId") Long senderId,
+            @Param("messageId") Long messageId, @Param("sentAt") LocalDateTime sentAt);
+
+    // Moves one user's inbox sort key forward (e.g. to the moment they cleared the chat)
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_participants
+            SET last_activity_at = GREATEST(COALESCE(last_activity_at, :at), :at)
+            WHERE conversation_id = :conversationId AND user_id = :userId
+            """, nativeQuery = true)
+    int touchActivity(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("at") LocalDateTime at);
+
+    // Returns 0 when the user had already read up to messageId (nothing to do)
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_participants SET unread_count = 0, last_read_message_id = :messageId
+            WHERE conversation_id = :conversationId AND user_id = :userId
+              AND (last_read_message_id IS NULL OR last_read_message_id < :messageId OR unread_count > 0)
+            """, nativeQuery = true)
+    int markReadUpTo(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("messageId") Long messageId);
+
+    // Rewinds the read marker to just before the latest message from someone else
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_participants p
+            SET unread_count = GREATEST(p.unread_count, 1),
+                last_read_message_id = (
+                    SELECT MAX(m.message_id) FROM messages m
+                    WHERE m.conversation_id = :conversationId
+                      AND m.message_id < latest.message_id)
+            FROM (
+                SELECT MAX(m2.message_id) AS message_id FROM messages m2
+                WHERE m2.conversation_id = :conversationId AND m2.sender_id <> :userId
+            ) latest
+            WHERE latest.message_id IS NOT NULL
+              AND p.conversation_id = :conversationId AND p.user_id = :userId
+            """, nativeQuery = true)
+    int markLastMessageUnread(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
 }
@@ -1,9 +1,11 @@
 package com.edurent.crc.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -34,4 +36,39 @@ public interface ConversationRepository extends JpaRepository<ConversationEntity
                         @Param("listingId") Long listingId,
                         @Param("user1Id") Long user1Id,
                         @Param("user2Id") Long user2Id);
-}
\ No newline at end of file
+
+        // Hydrates an inbox page (order is restored by the caller)
+        @Query("SELECT c FROM ConversationEntity c " +
+                        "LEFT JOIN FETCH c.listing l " +
+                        "LEFT JOIN FETCH l.user " +
+                        "WHERE c.conversationId IN :conversationIds")
+        List<ConversationEntity> findWithListingByIdIn(@Param("conversationIds") List<Long> conversationIds);
+
+        // Inbox summary: only moves forward, so out-of-order commits keep the newest message
+        @Modifying
+        @Query(value = """
+                        UPDATE conversations
+                        SET last_message_id = :messageId, last_message_preview = :preview,
+                            last_message_at = :sentAt, last_message_sender_id = :senderId
+                        WHERE conversation_id = :conversationId
+                          AND (last_message_id IS NULL OR last_message_id < :messageId)
+                        """, nativeQuery = true)
+        int updateLastMessage(
+                        @Param("conversationId") Long conversationId,
+                        @Param("messageId") Long messageId,
+                        @Param("preview") String preview,
+                        @Param("sentAt") LocalDateTime sentAt,
+                        @Param("senderId") Long senderId);
+
+        @Query("SELECT c.lastMessageId FROM ConversationEntity c WHERE c.conversationId = :conversationId")
+        Long findLastMessageId(@Param("conversationId") Long conversationId);
+
+        // Send-path metadata: participants with their users and the listing, in one query
+        @Query("SELECT DISTINCT c FROM ConversationEntity c " +
+                        "JOIN FETCH c.participants p " +
+                        "JOIN FETCH p.user " +
+                        "LEFT JOIN FETCH c.listing l " +
+                        "LEFT JOIN FETCH l.user " +
+                        "WHERE c.conversationId = :conversationId")
+        Optional<ConversationEntity> findWithParticipantsById(@Param("conversationId") Long conversationId);
+}
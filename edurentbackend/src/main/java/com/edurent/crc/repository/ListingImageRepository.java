@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +14,8 @@ public interface ListingImageRepository extends JpaRepository<ListingImageEntity
     // Method to find images by listing ID
     @Query("SELECT li FROM ListingImageEntity li WHERE li.listing.listingId = :listingId")
     List<ListingImageEntity> findByListingId(@Param("listingId") Long listingId);
+
+    // Batch fetch images for a page of listings (one query instead of one per row)
+    @Query("SELECT li FROM ListingImageEntity li WHERE li.listing.listingId IN :listingIds ORDER BY li.imageId")
+    List<ListingImageEntity> findByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
 }
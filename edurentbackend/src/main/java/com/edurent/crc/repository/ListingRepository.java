@@ -1,57 +1,157 @@
 package com.edurent.crc.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.edurent.crc.dto.ListingCardDTO;
 import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
 
 @Repository
-public interface ListingRepository extends JpaRepository<ListingEntity, Long> {
+public interface ListingRepository extends JpaRepository<ListingEntity, Long>,
+                JpaSpecificationExecutor<ListingEntity> {
+
+        // Combined browse filter (see ListingSpecifications), with user and category in the same query
+        @Override
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        Page<ListingEntity> findAll(Specification<ListingEntity> spec, Pageable pageable);
 
         // --- Pageable queries with EntityGraph for list views ---
         // Note: Using @EntityGraph with Pageable works well for smaller datasets.
         // The original JPQL with DISTINCT is preserved for complex filtering.
+        // Status groups are inclusive code ranges (ListingStatus.PUBLIC, PROFILE, ...),
+        // so each query is a single BETWEEN on the smallint status column.
 
         @EntityGraph(value = "Listing.withUserAndCategory")
         @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId")
         Page<ListingEntity> findByUserId(@Param("userId") Long userId, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
-        @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId AND l.status IN :statuses")
-        Page<ListingEntity> findByUser_UserIdAndStatusIn(@Param("userId") Long userId,
-                        @Param("statuses") List<String> statuses, Pageable pageable);
+        @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingEntity> findByUser_UserIdAndStatusBetween(@Param("userId") Long userId,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
-        @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId AND l.listingType = :listingType AND l.status IN :statuses")
-        Page<ListingEntity> findByUser_UserIdAndListingTypeAndStatusIn(@Param("userId") Long userId,
+        @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId AND l.listingType = :listingType AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingEntity> findByUser_UserIdAndListingTypeAndStatusBetween(@Param("userId") Long userId,
                         @Param("listingType") String listingType,
-                        @Param("statuses") List<String> statuses, Pageable pageable);
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
         @Query("SELECT l FROM ListingEntity l WHERE l.category.categoryId = :categoryId")
         Page<ListingEntity> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
-        @Query("SELECT l FROM ListingEntity l WHERE l.category.categoryId = :categoryId AND l.status IN :statuses")
-        Page<ListingEntity> findByCategory_CategoryIdAndStatusIn(@Param("categoryId") Long categoryId,
-                        @Param("statuses") List<String> statuses, Pageable pageable);
+        @Query("SELECT l FROM ListingEntity l WHERE l.category.categoryId = :categoryId AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingEntity> findByCategory_CategoryIdAndStatusBetween(@Param("categoryId") Long categoryId,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
-        @Query("SELECT l FROM ListingEntity l WHERE l.status IN :statuses")
-        Page<ListingEntity> findByStatusIn(@Param("statuses") List<String> statuses, Pageable pageable);
+        @Query("SELECT l FROM ListingEntity l WHERE l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingEntity> findByStatusBetween(@Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
 
         @EntityGraph(value = "Listing.withUserAndCategory")
-        @Query("SELECT l FROM ListingEntity l WHERE l.listingType = :listingType AND l.status IN :statuses")
-        Page<ListingEntity> findByListingTypeAndStatusIn(@Param("listingType") String listingType,
-                        @Param("statuses") List<String> statuses, Pageable pageable);
+        @Query("SELECT l FROM ListingEntity l WHERE l.listingType = :listingType AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingEntity> findByListingTypeAndStatusBetween(@Param("listingType") String listingType,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
+
+        // --- Card projections for browse grids ---
+        // Select only the columns a card shows; the cover image comes from a scalar
+        // subquery so listings with several images still yield exactly one row.
+
+        // Literal status ranges matching the partial feed indexes (ListingStatus.PUBLIC and PROFILE)
+        String PUBLIC_STATUS = "l.status BETWEEN com.edurent.crc.entity.ListingStatus.AVAILABLE "
+                        + "AND com.edurent.crc.entity.ListingStatus.RENTED ";
+        String PROFILE_STATUS = "l.status BETWEEN com.edurent.crc.entity.ListingStatus.AVAILABLE "
+                        + "AND com.edurent.crc.entity.ListingStatus.SOLD ";
+
+        String CARD_SELECT = "SELECT new com.edurent.crc.dto.ListingCardDTO(l.listingId, l.publicId, l.title, "
+                        + "l.listingType, l.price, l.rentPeriod, l.status, l.createdAt, "
+                        + "(SELECT MIN(i.imageUrl) FROM ListingImageEntity i WHERE i.listing = l AND i.isCoverPhoto = true), "
+                        + "u.userId, u.fullName, u.profilePictureUrl) "
+                        + "FROM ListingEntity l JOIN l.user u ";
+
+        @Query(value = CARD_SELECT + "WHERE l.status BETWEEN :fromStatus AND :toStatus",
+                        countQuery = "SELECT COUNT(l) FROM ListingEntity l WHERE l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingCardDTO> findCardsByStatusBetween(@Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
+
+        @Query(value = CARD_SELECT + "WHERE l.category.categoryId = :categoryId AND l.status BETWEEN :fromStatus AND :toStatus",
+                        countQuery = "SELECT COUNT(l) FROM ListingEntity l WHERE l.category.categoryId = :categoryId AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingCardDTO> findCardsByCategoryAndStatusBetween(@Param("categoryId") Long categoryId,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
+
+        @Query(value = CARD_SELECT + "WHERE l.listingType = :listingType AND l.status BETWEEN :fromStatus AND :toStatus",
+                        countQuery = "SELECT COUNT(l) FROM ListingEntity l WHERE l.listingType = :listingType AND l.status BETWEEN :fromStatus AND :toStatus")
+        Page<ListingCardDTO> findCardsByListingTypeAndStatusBetween(@Param("listingType") String listingType,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus, Pageable pageable);
+
+        // --- Keyset (cursor) queries for infinite scroll ---
+        // Seek past the last seen (createdAt, listingId) instead of using OFFSET,
+        // and return a plain List so Spring Data never issues a COUNT query.
+        // The Pageable only carries the LIMIT (always page 0).
+        // Each feed is read in order from a partial index (see IndexMigration), so the
+        // status range is written as literals: the planner can only match a partial
+        // index predicate against constants, not bind parameters. The extra
+        // createdAt <= :createdAt gives the scan its start key; the OR alone is only a filter.
+
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        @Query("SELECT l FROM ListingEntity l WHERE " + PUBLIC_STATUS +
+                        "AND l.createdAt <= :createdAt " +
+                        "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.listingId < :listingId)) " +
+                        "ORDER BY l.createdAt DESC, l.listingId DESC")
+        List<ListingEntity> findPublicBefore(@Param("createdAt") LocalDateTime createdAt,
+                        @Param("listingId") Long listingId, Pageable limit);
+
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        @Query("SELECT l FROM ListingEntity l WHERE l.category.categoryId = :categoryId AND " + PUBLIC_STATUS +
+                        "AND l.createdAt <= :createdAt " +
+                        "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.listingId < :listingId)) " +
+                        "ORDER BY l.createdAt DESC, l.listingId DESC")
+        List<ListingEntity> findPublicByCategoryBefore(@Param("categoryId") Long categoryId,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("listingId") Long listingId,
+                        Pageable limit);
+
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        @Query("SELECT l FROM ListingEntity l WHERE l.listingType = :listingType AND " + PUBLIC_STATUS +
+                        "AND l.createdAt <= :createdAt " +
+                        "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.listingId < :listingId)) " +
+                        "ORDER BY l.createdAt DESC, l.listingId DESC")
+        List<ListingEntity> findPublicByListingTypeBefore(@Param("listingType") String listingType,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("listingId") Long listingId,
+                        Pageable limit);
+
+        // Profile groups (active, sold, all) are all inside PROFILE, which the index covers
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        @Query("SELECT l FROM ListingEntity l WHERE l.user.userId = :userId AND " + PROFILE_STATUS +
+                        "AND l.status BETWEEN :fromStatus AND :toStatus " +
+                        "AND l.createdAt <= :createdAt " +
+                        "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.listingId < :listingId)) " +
+                        "ORDER BY l.createdAt DESC, l.listingId DESC")
+        List<ListingEntity> findByUserAndStatusBetweenBefore(@Param("userId") Long userId,
+                        @Param("fromStatus") ListingStatus fromStatus,
+                        @Param("toStatus") ListingStatus toStatus,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("listingId") Long listingId,
+                        Pageable limit);
 
         // --- Detail queries with full EntityGraph (includes images) ---
 
@@ -72,7 +172,27 @@ public interface ListingRepository extends JpaRepository<ListingEntity, Long> {
         // --- Simple queries without eager loading (for internal use) ---
         List<ListingEntity> findByListingType(String listingType);
 
-        List<ListingEntity> findByStatus(String status);
+        List<ListingEntity> findByStatus(ListingStatus status);
 
-        List<ListingEntity> findByCategory_CategoryIdAndStatus(Long categoryId, String status);
+        List<ListingEntity> findByCategory_CategoryIdAndStatus(Long categoryId, ListingStatus status);
+
+        // --- Search index support ---
+
+        /**
+         * Only the columns the in-memory search index needs:
+         * [listingId, title, description, condition, status].
+         */
+        @Query("SELECT l.listingId, l.title, l.description, l.condition, l.status FROM ListingEntity l")
+        List<Object[]> findSearchDocuments();
+
+        // Same columns for one listing (re-indexing a change made on another instance)
+        @Query("SELECT l.listingId, l.title, l.description, l.condition, l.status FROM ListingEntity l "
+                        + "WHERE l.listingId = :listingId")
+        List<Object[]> findSearchDocument(@Param("listingId") Long listingId);
+
+        /**
+         * Hydrates ranked search hits by primary key (order is restored by the caller).
+         */
+        @EntityGraph(value = "Listing.withUserAndCategory")
+        List<ListingEntity> findByListingIdIn(Collection<Long> listingIds);
 }
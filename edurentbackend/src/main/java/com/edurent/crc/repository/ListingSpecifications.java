@@ -0,0 +1,71 @@
+package com.edurent.crc.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.edurent.crc.dto.ListingFilterDTO;
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Builds the combined browse filter as a JPA Specification.
+ * Facet counts reuse it with their own dimension left out, so each bucket
+ * shows what selecting it would return given the other active filters.
+ */
+public final class ListingSpecifications {
+
+    // Facet / filter dimension names (also the keys of the facet map)
+    public static final String CONDITION = "condition";
+    public static final String LISTING_TYPE = "listingType";
+    public static final String CATEGORY = "category";
+    public static final String SCHOOL = "school";
+    public static final String ALLOW_MEETUP = "allowMeetup";
+    public static final String ALLOW_DELIVERY = "allowDelivery";
+
+    private ListingSpecifications() {
+    }
+
+    public static Specification<ListingEntity> matching(ListingFilterDTO filter, ListingStatus.Range statuses) {
+        return matching(filter, statuses, null);
+    }
+
+    // Same filter with one dimension ignored ('excluded' may be null)
+    public static Specification<ListingEntity> matching(ListingFilterDTO filter, ListingStatus.Range statuses,
+            String excluded) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.between(root.<ListingStatus>get("status"), statuses.from(), statuses.to()));
+
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getCondition() != null && !CONDITION.equals(excluded)) {
+                predicates.add(cb.equal(root.get("condition"), filter.getCondition()));
+            }
+            if (filter.getListingType() != null && !LISTING_TYPE.equals(excluded)) {
+                predicates.add(cb.equal(root.get("listingType"), filter.getListingType()));
+            }
+            if (filter.getAllowMeetup() != null && !ALLOW_MEETUP.equals(excluded)) {
+                predicates.add(cb.equal(root.get("allowMeetup"), filter.getAllowMeetup()));
+            }
+            if (filter.getAllowDelivery() != null && !ALLOW_DELIVERY.equals(excluded)) {
+                predicates.add(cb.equal(root.get("allowDelivery"), filter.getAllowDelivery()));
+            }
+            if (filter.getCategoryId() != null && !CATEGORY.equals(excluded)) {
+                predicates.add(cb.equal(root.get("category").get("categoryId"), filter.getCategoryId()));
+            }
+            if (filter.getSchoolId() != null && !SCHOOL.equals(excluded)) {
+                predicates.add(cb.equal(root.get("user").get("school").get("schoolId"), filter.getSchoolId()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
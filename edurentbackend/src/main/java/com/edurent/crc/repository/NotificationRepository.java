@@ -1,8 +1,12 @@
 package com.edurent.crc.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,31 +18,41 @@ import com.edurent.crc.entity.NotificationEntity;
 @Repository
 public interface NotificationRepository extends JpaRepository<NotificationEntity, Long> {
 
-    // Method to find notifications by user ID
-    @Query("SELECT n FROM NotificationEntity n WHERE n.user.userId = :userId")
-    List<NotificationEntity> findByUserId(@Param("userId") Long userId);
-
-    // Method to find notifications by user ID and read status
-    @Query("SELECT n FROM NotificationEntity n WHERE n.user.userId = :userId AND n.isRead = :isRead")
-    List<NotificationEntity> findByUserIdAndIsRead(@Param("userId") Long userId, @Param("isRead") Boolean isRead);
-
-    // Method to find a notification by type, user ID, and content
-    Optional<NotificationEntity> findByTypeAndUser_UserIdAndContent(String type, Long userId, String content);
+    // Keyset inbox on idx_notification_user_created_id: newest first, no count query
+    @Query("SELECT n FROM NotificationEntity n WHERE n.user.userId = :userId " +
+            "AND (:unreadOnly = false OR n.isRead = false) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    Slice<NotificationEntity> findLatestByUserId(@Param("userId") Long userId,
+            @Param("unreadOnly") boolean unreadOnly, Pageable pageable);
+
+    // Notifications older than the (beforeCreatedAt, beforeId) cursor
+    @Query("SELECT n FROM NotificationEntity n WHERE n.user.userId = :userId " +
+            "AND (:unreadOnly = false OR n.isRead = false) " +
+            "AND (n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.notificationId < :beforeId)) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    Slice<NotificationEntity> findOlderByUserId(@Param("userId") Long userId,
+            @Param("unreadOnly") boolean unreadOnly,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    // Header badge, served by the partial index idx_notification_user_unread
+    long countByUser_UserIdAndIsReadFalse(Long userId);
 
     // Method to find a notification by its ID and user ID
     Optional<NotificationEntity> findByNotificationIdAndUser_UserId(Long notificationId, Long userId);
 
-    // Method to get all notifications for a user with a specific read status
-    List<NotificationEntity> findAllByUser_UserIdAndIsRead(Long userId, Boolean isRead);
-
     // Method to mark all notifications as read for a user
     @Modifying 
     @Query("UPDATE NotificationEntity n SET n.isRead = true WHERE n.user.userId = :userId AND n.isRead = false")
     int markAllAsReadByUserId(@Param("userId") Long userId);
 
-    // Find existing unread notification for a specific link (used for grouping)
-    Optional<NotificationEntity> findByTypeAndUser_UserIdAndLinkUrlAndIsReadFalse(String type, Long userId, String linkUrl);
-
     // Find the latest notification for a specific link (read or unread) to support re-surfacing
     Optional<NotificationEntity> findFirstByTypeAndUser_UserIdAndLinkUrlOrderByCreatedAtDesc(String type, Long userId, String linkUrl);
+
+    // Candidate rows for a batch of (user, type, link) keys, oldest first (NotificationDispatcher keeps the newest)
+    @Query("SELECT n FROM NotificationEntity n WHERE n.user.userId IN :userIds AND n.type IN :types " +
+            "AND n.linkUrl IN :linkUrls ORDER BY n.createdAt ASC, n.notificationId ASC")
+    List<NotificationEntity> findByUserIdsAndTypesAndLinkUrls(@Param("userIds") Collection<Long> userIds,
+            @Param("types") Collection<String> types, @Param("linkUrls") Collection<String> linkUrls);
 }
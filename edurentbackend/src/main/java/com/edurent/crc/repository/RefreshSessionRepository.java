@@ -0,0 +1,33 @@
+package com.edurent.crc.repository;
+
+import com.edurent.crc.entity.RefreshSessionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSessionEntity, String> {
+
+    // Advances the session by one generation if 'generation' is still the current one
+    // (compare-and-set: of two concurrent refreshes with the same token only one succeeds)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefreshSessionEntity s SET s.generation = s.generation + 1, s.expiresAt = :expiresAt, " +
+           "s.rotatedAt = :now " +
+           "WHERE s.sessionId = :sessionId AND s.userId = :userId AND s.generation = :generation " +
+           "AND s.expiresAt > :now")
+    int rotate(@Param("sessionId") String sessionId, @Param("userId") Long userId,
+            @Param("generation") int generation, @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RefreshSessionEntity s WHERE s.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+
+    // Delete expired sessions (for cleanup)
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RefreshSessionEntity s WHERE s.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
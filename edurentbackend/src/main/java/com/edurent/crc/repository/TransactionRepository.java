@@ -30,7 +30,7 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
     @Query("SELECT t FROM TransactionEntity t " +
             "JOIN t.listing l " +
             "WHERE t.transactionType = 'Rent' " +
-            "AND l.status = 'Rented' " +
+            "AND l.status = com.edurent.crc.entity.ListingStatus.RENTED " +
             "AND t.endDate < CURRENT_TIMESTAMP")
     List<TransactionEntity> findExpiredRentals();
 
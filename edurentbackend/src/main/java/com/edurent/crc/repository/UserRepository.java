@@ -4,7 +4,11 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.edurent.crc.entity.UserEntity;
 
@@ -29,4 +33,11 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     @EntityGraph(value = "User.withSchool")
     Optional<UserEntity> findWithSchoolByUserId(Long userId);
+
+    // Writes only the password hash, so a concurrent token_version bump or
+    // profile edit is not overwritten by a stale copy of the user
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.passwordHash = :passwordHash WHERE u.userId = :userId")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("passwordHash") String passwordHash);
 }
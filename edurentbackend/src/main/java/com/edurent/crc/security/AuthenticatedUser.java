@@ -0,0 +1,61 @@
+package com.edurent.crc.security;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Request principal built from the JWT claims alone, so authenticating a
+ * request needs no database lookup. fullName is as of token issue.
+ * Code that needs the full profile loads it through UserPrincipalCache.
+ */
+public class AuthenticatedUser implements Principal {
+
+    // Same single role UserEntity grants
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long userId;
+    private final String email;
+    private final String fullName;
+    private final int tokenVersion;
+
+    public AuthenticatedUser(Long userId, String email, String fullName, int tokenVersion) {
+        this.userId = userId;
+        this.email = email;
+        this.fullName = fullName;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public Collection<GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId=" + userId + ", email='" + email + "'}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.edurent.crc.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest cost whose hash time stays
+ * within the target. Each extra cost step doubles the work, so only the minimum
+ * cost is measured and higher costs are extrapolated.
+ */
+public final class BCryptCalibration {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCalibration.class);
+
+    private BCryptCalibration() {
+    }
+
+    public static int costFor(long targetMillis, int minCost, int maxCost) {
+        // Warm up the JIT so the measured hash is representative
+        BCrypt.hashpw("calibration", BCrypt.gensalt(minCost));
+
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(minCost));
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        int cost = minCost;
+        while (cost < maxCost && millis * 2 <= targetMillis) {
+            cost++;
+            millis *= 2;
+        }
+        log.info("BCrypt cost calibrated to {} (~{} ms per hash, target {} ms)", cost, Math.round(millis),
+                targetMillis);
+        return cost;
+    }
+}
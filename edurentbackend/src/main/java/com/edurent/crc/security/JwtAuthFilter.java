@@ -3,21 +3,23 @@ package com.edurent.crc.security;
 import org.springframework.lang.NonNull;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.edurent.crc.entity.UserEntity;
-import com.edurent.crc.repository.UserRepository;
-
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,13 +28,64 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+    // Log one in every 1024 token events when DEBUG is on
+    private static final long LOG_SAMPLE_MASK = 1023;
+
     @Autowired
     private JwtService jwtService;
     @Autowired
-    private UserRepository userRepository;
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
 
+    // Outcome meters are registered once so the request path never builds tags
+    private Counter publicSkipped;
+    private Counter anonymous;
+    private Counter authenticated;
+    private Counter expired;
+    private Counter invalid;
+    private Counter revoked;
+    private Counter notAccessToken;
+    private Counter failed;
+    private Timer verification;
+
+    private final AtomicLong logSequence = new AtomicLong();
+
+    @PostConstruct
+    void registerMeters() {
+        publicSkipped = outcome("public_skipped");
+        anonymous = outcome("anonymous");
+        authenticated = outcome("authenticated");
+        expired = outcome("expired");
+        invalid = outcome("invalid");
+        revoked = outcome("revoked");
+        notAccessToken = outcome("not_access_token");
+        failed = outcome("error");
+        verification = Timer.builder("auth.jwt.verification")
+                .description("Time spent parsing and verifying bearer tokens")
+                .register(meterRegistry);
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder("auth.jwt.requests")
+                .description("JWT filter outcomes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Public routes never read the principal, so don't touch the token at all
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (PublicRoutes.PUBLIC_ONLY.matches(request)) {
+            publicSkipped.increment();
+            return true;
+        }
+        return false;
+    }
+
     // Main filter method
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
@@ -46,92 +99,72 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            log.warn("Authorization header missing or does not start with Bearer for {}", request.getRequestURI());
+        // Anonymous request: nothing to parse, log or allocate
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            anonymous.increment();
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
+        final String jwt = authHeader.substring(BEARER_PREFIX.length());
+        final AuthenticatedUser principal;
 
+        // Parse and verify the token exactly once; the principal comes from its claims (no DB lookup)
+        long start = System.nanoTime();
         try {
-            userEmail = jwtService.extractUsername(jwt);
-            log.info("Extracted email from JWT: {}", userEmail);
-
+            principal = jwtService.toPrincipal(jwtService.parseClaims(jwt));
         } catch (ExpiredJwtException eje) {
-            log.warn("JWT token is expired: {}", eje.getMessage());
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("JWT Token Expired");
+            expired.increment();
+            sampledDebug("JWT token is expired: {}", eje.getMessage());
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT Token Expired");
             return;
         } catch (JwtException | IllegalArgumentException e) {
-            log.error("Error processing JWT: {}", e.getMessage());
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("Invalid JWT Token");
+            invalid.increment();
+            sampledDebug("Error processing JWT: {}", e.getMessage());
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT Token");
             return;
         } catch (Exception e) {
-            log.error("Unexpected error during JWT email extraction: {}", e.getMessage(), e);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.getWriter().write("Internal server error during token processing");
+            failed.increment();
+            log.error("Unexpected error during JWT processing: {}", e.getMessage(), e);
+            reject(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Internal server error during token processing");
             return;
+        } finally {
+            verification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
-        // Check if the user is already authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            log.info("User {} is not yet authenticated, attempting to load.", userEmail);
-
-            UserEntity user = null;
-            try {
-                user = this.userRepository.findByEmail(userEmail)
-                        .orElse(null);
-
-                if (user == null) {
-                    log.warn("User not found in database for email: {}", userEmail);
-                } else {
-                    log.info("User found in database: ID={}, Email={}", user.getUserId(), user.getEmail());
-                    log.debug("User authorities: {}", user.getAuthorities());
-                }
-            } catch (Exception e) {
-                log.error("Error loading user from database for email {}: {}", userEmail, e.getMessage(), e);
-            }
-
-            // Check if the token is valid
-            boolean isTokenValid = false;
-            if (user != null) {
-                try {
-                    isTokenValid = jwtService.validateToken(jwt, user);
-                    log.info("JWT token validation result for user {}: {}", userEmail, isTokenValid);
-                } catch (Exception e) {
-                    log.error("Error during JWT validation for user {}: {}", userEmail, e.getMessage(), e);
-                    isTokenValid = false;
-                }
-            }
-
-            // If valid, set authentication in context
-            if (isTokenValid && user != null) {
-                log.info("Proceeding to set Authentication context for user: {}", userEmail);
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        user,
-                        null,
-                        user.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.info("Authentication successfully set in SecurityContext for user: {}", userEmail);
-            } else {
-                log.warn("Token validation failed or user not found for email {}, authentication not set.", userEmail);
-            }
-        } else {
-            if (userEmail == null) {
-                log.warn("User email is null after extraction attempt.");
-            } else {
-                log.info("User {} already authenticated, filter passes through.", userEmail);
-            }
+        if (principal == null) {
+            notAccessToken.increment();
+            sampledDebug("JWT is not an access token with userId/version claims for {}", request.getRequestURI());
+        } else if (tokenRevocationService.isRevoked(principal.getUserId(), principal.getTokenVersion())) {
+            // Password changed or reset since this token was issued
+            revoked.increment();
+            sampledDebug("Revoked JWT used for user {}", principal.getUserId());
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT Token Revoked");
+            return;
+        } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Stateless API: no WebAuthenticationDetails, nothing downstream reads them
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    principal.getAuthorities()));
+            authenticated.increment();
+            sampledDebug("Authenticated JWT for: {}", principal);
         }
 
         // Continue the filter chain
         filterChain.doFilter(request, response);
-        log.debug("JwtAuthFilter finished processing for: {}", request.getRequestURI());
     }
-}
\ No newline at end of file
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write(message);
+    }
+
+    private void sampledDebug(String format, Object arg) {
+        if (log.isDebugEnabled() && (logSequence.getAndIncrement() & LOG_SAMPLE_MASK) == 0) {
+            log.debug(format, arg);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.edurent.crc.security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import jakarta.annotation.PostConstruct;
@@ -14,8 +18,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.edurent.crc.entity.UserEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -29,57 +39,126 @@ public class JwtService {
     @org.springframework.beans.factory.annotation.Value("${jwt.secret}")
     private String secretKey;
 
+    // Built once from jwt.secret; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // Claims of tokens whose signature was already verified, keyed by SHA-256 of the token.
+    // Each entry expires with its token, so a hit is always an unexpired token.
+    private Cache<String, Claims> verifiedTokens;
+
+    // Clock for cache expiry (replaced in tests)
+    private Ticker ticker = Ticker.systemTicker();
+
     @PostConstruct
     public void init() {
+        byte[] keyBytes;
         try {
-            Base64.getDecoder().decode(secretKey);
+            keyBytes = Base64.getDecoder().decode(secretKey);
         } catch (IllegalArgumentException e) {
             log.warn(
                     "WARNING: 'jwt.secret' is NOT a valid Base64 string. Falling back to using raw bytes. Usage of Base64 encoded secrets is recommended.");
+            keyBytes = secretKey.getBytes();
         }
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long millisLeft = claims.getExpiration() == null ? 0
+                                : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .build();
     }
 
-    // Token validity (e.g., 24 hours)
-    private static final long JWT_TOKEN_VALIDITY = 1000 * 60 * 60 * 24;
+    // Claim names: token type ("access" / "refresh") and the user's token version;
+    // refresh tokens also carry their session and generation (RefreshSessionService)
+    public static final String TYPE_CLAIM = "typ";
+    public static final String VERSION_CLAIM = "ver";
+    public static final String SESSION_CLAIM = "sid";
+    public static final String GENERATION_CLAIM = "gen";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
+    // Token validity: short-lived access tokens, renewed with a refresh token
+    @org.springframework.beans.factory.annotation.Value("${jwt.access-token-minutes:15}")
+    private long accessTokenMinutes;
 
-    // 1. Generate token for user
+    @org.springframework.beans.factory.annotation.Value("${jwt.refresh-token-days:14}")
+    private long refreshTokenDays;
+
+    // 1. Generate (access) token for user
     public String generateToken(UserEntity user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getUserId());
         claims.put("fullName", user.getFullName());
+        claims.put(VERSION_CLAIM, user.getTokenVersion());
+        claims.put(TYPE_CLAIM, ACCESS);
 
-        return createToken(claims, user.getEmail());
+        return createToken(claims, user.getEmail(), TimeUnit.MINUTES.toMillis(accessTokenMinutes));
+    }
+
+    // 1b. Generate refresh token for user (only accepted by /auth/refresh, once)
+    public String generateRefreshToken(UserEntity user, RefreshSessionService.RefreshSession session) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getUserId());
+        claims.put(VERSION_CLAIM, user.getTokenVersion());
+        claims.put(TYPE_CLAIM, REFRESH);
+        claims.put(SESSION_CLAIM, session.sessionId());
+        claims.put(GENERATION_CLAIM, session.generation());
+
+        return createToken(claims, user.getEmail(), TimeUnit.DAYS.toMillis(refreshTokenDays));
     }
 
     // 2. Create the token
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long validityMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY))
+                .setExpiration(new Date(System.currentTimeMillis() + validityMillis))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    // 3. Get the signing key
+    // 3. Get the signing key (precomputed in init)
     private Key getSigningKey() {
-        try {
-            byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-            return Keys.hmacShaKeyFor(keyBytes);
-        } catch (IllegalArgumentException e) {
-            // Fallback to raw bytes if secret is not Base64
-            return Keys.hmacShaKeyFor(secretKey.getBytes());
-        }
+        return signingKey;
     }
 
-    // 4. Extract all claims from a token
+    // 4. Extract all claims from a token; the signature is verified only on the first sight of a token
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String tokenHash = sha256(token);
+        Claims claims = verifiedTokens.getIfPresent(tokenHash);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     // 5. Extract a specific claim
@@ -103,7 +182,37 @@ public class JwtService {
         return extractExpiration(token).before(new Date());
     }
 
-    // 9. Validate token (check if username matches and token is not expired)
+    // 9. Verify signature and expiry once and return the claims
+    // (throws ExpiredJwtException / JwtException like the extractors above)
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    // 10. Build the request principal from verified access-token claims; null for refresh
+    // tokens and for tokens issued before the userId/version claims
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Object userId = claims.get("userId");
+        Object version = claims.get(VERSION_CLAIM);
+        if (!ACCESS.equals(claims.get(TYPE_CLAIM)) || !(userId instanceof Number) || !(version instanceof Number)
+                || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(((Number) userId).longValue(), claims.getSubject(),
+                claims.get("fullName", String.class), ((Number) version).intValue());
+    }
+
+    // 10b. Verified refresh-token claims (throws JwtException for any other token)
+    public Claims parseRefreshToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH.equals(claims.get(TYPE_CLAIM)) || !(claims.get("userId") instanceof Number)
+                || !(claims.get(VERSION_CLAIM) instanceof Number) || !(claims.get(SESSION_CLAIM) instanceof String)
+                || !(claims.get(GENERATION_CLAIM) instanceof Number)) {
+            throw new JwtException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    // 11. Validate token (check if username matches and token is not expired)
     public Boolean validateToken(String token, UserEntity user) {
         final String username = extractUsername(token);
         return (username.equals(user.getEmail()) && !isTokenExpired(token));
@@ -0,0 +1,110 @@
+package com.edurent.crc.security;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fixed-window attempt counters per account (email) and per client IP, checked
+ * before any password hashing. A window starts at the first attempt and the
+ * entry expires with it; increments don't extend it.
+ *
+ * Only failures are meant to count: an attempt is counted up front (so a burst
+ * is throttled before it reaches the hashing pool) and given back by
+ * succeeded(). Many students behind one NAT address logging in normally
+ * therefore never use up the IP window; the IP limit is set well above the
+ * per-account one so it only catches spraying across accounts.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${app.security.login.max-attempts-per-account:10}")
+    private int maxAttemptsPerAccount;
+
+    @Value("${app.security.login.max-attempts-per-ip:300}")
+    private int maxAttemptsPerIp;
+
+    @Value("${app.security.login.window-minutes:15}")
+    private long windowMinutes;
+
+    // Clock for window starts and expiry (replaced in tests)
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Cache<String, Window> accountAttempts;
+    private Cache<String, Window> ipAttempts;
+
+    /** Outcome of tryAcquire; retryAfterSeconds is 0 when allowed. */
+    public record Attempt(boolean allowed, long retryAfterSeconds) {
+
+        static final Attempt ALLOWED = new Attempt(true, 0);
+    }
+
+    // One window: its start and the attempts counted in it
+    private static final class Window {
+        final long startedAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        accountAttempts = newWindow();
+        ipAttempts = newWindow();
+    }
+
+    private Cache<String, Window> newWindow() {
+        return Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .ticker(ticker)
+                .build();
+    }
+
+    // Counts one attempt; rejected with the time left on the (longest) exceeded window
+    public Attempt tryAcquire(String email, String ip) {
+        long now = ticker.read();
+        long retryAfter = count(ipAttempts, ip, maxAttemptsPerIp, now);
+        if (email != null && !email.isBlank()) {
+            retryAfter = Math.max(retryAfter, count(accountAttempts, normalize(email), maxAttemptsPerAccount, now));
+        }
+        return retryAfter == 0 ? Attempt.ALLOWED : new Attempt(false, retryAfter);
+    }
+
+    // Successful login or registration: clears the account's window and gives the IP its attempt back
+    public void succeeded(String email, String ip) {
+        if (email != null) {
+            accountAttempts.invalidate(normalize(email));
+        }
+        Window window = ipAttempts.getIfPresent(ip);
+        if (window != null) {
+            window.attempts.updateAndGet(n -> Math.max(0, n - 1));
+        }
+    }
+
+    // Returns 0 while within the limit, otherwise the seconds until the window ends (at least 1)
+    private long count(Cache<String, Window> windows, String key, int limit, long now) {
+        Window window = windows.get(key, k -> new Window(now));
+        if (window.attempts.incrementAndGet() <= limit) {
+            return 0;
+        }
+        long remainingNanos = TimeUnit.MINUTES.toNanos(windowMinutes) - (now - window.startedAt);
+        return Math.max(1, (TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 999) / 1000);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
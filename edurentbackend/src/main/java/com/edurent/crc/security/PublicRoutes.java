@@ -0,0 +1,38 @@
+package com.edurent.crc.security;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * permitAll routes whose handlers never read the principal. SecurityConfig
+ * opens them and JwtAuthFilter skips them entirely, even when a token is
+ * sent. Public routes that do use an optional principal (/api/v1/auth/**
+ * for change-password, GET /api/v1/users/{id} which also matches /me) stay
+ * in SecurityConfig only.
+ */
+public final class PublicRoutes {
+
+    public static final RequestMatcher PUBLIC_ONLY = new OrRequestMatcher(
+            antMatcher("/api/v1/auth/login"),
+            antMatcher("/api/v1/auth/register"),
+            antMatcher("/api/v1/auth/refresh"),
+            antMatcher("/api/v1/auth/forgot-password"),
+            antMatcher("/api/v1/auth/reset-password"),
+            antMatcher("/actuator/health/**"),
+            antMatcher("/actuator/metrics/**"),
+            antMatcher("/api/v1/schools/**"),
+            antMatcher("/ws/**"),
+            antMatcher(HttpMethod.GET, "/uploads/listing-images/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/users/username/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/reviews/user/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/reviews/transaction/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/categories/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/listings/**"),
+            antMatcher(HttpMethod.GET, "/api/v1/transactions/listing/**"));
+
+    private PublicRoutes() {
+    }
+}
@@ -0,0 +1,90 @@
+package com.edurent.crc.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.edurent.crc.entity.RefreshSessionEntity;
+import com.edurent.crc.repository.RefreshSessionRepository;
+
+/**
+ * Refresh-token rotation. Every login starts a session (refresh_sessions row);
+ * its refresh tokens carry the session id and a generation, and a refresh is
+ * only accepted for the current generation, which it advances. A refresh
+ * token therefore works once. Tabs share the refresh token through
+ * localStorage, so two of them may refresh with the same token at once: the
+ * previous generation is still accepted for jwt.refresh-reuse-grace-seconds
+ * after a rotation and gets the current generation re-issued. Anything older
+ * (or later) means the token was copied, so the whole session is revoked and
+ * that device has to log in again. Sessions slide: each refresh extends the
+ * expiry by jwt.refresh-token-days.
+ */
+@Service
+@Lazy(false)
+public class RefreshSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshSessionService.class);
+
+    @Autowired
+    private RefreshSessionRepository refreshSessionRepository;
+
+    @Value("${jwt.refresh-token-days:14}")
+    private long refreshTokenDays;
+
+    @Value("${jwt.refresh-reuse-grace-seconds:30}")
+    private long reuseGraceSeconds;
+
+    // Position of a refresh token within its session
+    public record RefreshSession(String sessionId, int generation) {
+    }
+
+    @Transactional
+    public RefreshSession start(Long userId) {
+        RefreshSessionEntity session = new RefreshSessionEntity(UUID.randomUUID().toString(), userId, expiry());
+        refreshSessionRepository.save(session);
+        return new RefreshSession(session.getSessionId(), session.getGeneration());
+    }
+
+    // Returns the generation to issue; throws IllegalArgumentException (and revokes the session) on reuse
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public RefreshSession rotate(Long userId, String sessionId, int generation) {
+        Instant now = Instant.now();
+        if (refreshSessionRepository.rotate(sessionId, userId, generation, expiry(), now) == 1) {
+            return new RefreshSession(sessionId, generation + 1);
+        }
+
+        RefreshSessionEntity session = refreshSessionRepository.findById(sessionId)
+                .filter(s -> s.getUserId().equals(userId) && s.getExpiresAt().isAfter(now))
+                .orElseThrow(() -> new IllegalArgumentException("Refresh session has ended."));
+        // Another tab just refreshed with the same token: hand out the pair it received
+        if (session.getGeneration() == generation + 1 && session.getRotatedAt() != null
+                && session.getRotatedAt().isAfter(now.minus(Duration.ofSeconds(reuseGraceSeconds)))) {
+            return new RefreshSession(sessionId, session.getGeneration());
+        }
+        refreshSessionRepository.deleteBySessionId(sessionId);
+        log.warn("Refresh token reuse for user {}; session revoked", userId);
+        throw new IllegalArgumentException("Refresh token was already used.");
+    }
+
+    // Run daily at 3:30 AM.
+    @Scheduled(cron = "${app.auth.refresh-session-cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpiredSessions() {
+        int deleted = refreshSessionRepository.deleteExpired(Instant.now());
+        log.info("Removed {} expired refresh sessions", deleted);
+    }
+
+    private Instant expiry() {
+        return Instant.now().plus(refreshTokenDays, ChronoUnit.DAYS);
+    }
+}
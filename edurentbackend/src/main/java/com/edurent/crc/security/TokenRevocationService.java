@@ -0,0 +1,51 @@
+package com.edurent.crc.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.edurent.crc.service.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory revocation check for access tokens, consulted by JwtAuthFilter
+ * without touching the database. Holds the current token version only for
+ * users whose version changed recently (password change or reset); any
+ * access token carrying an older version is rejected.
+ *
+ * An entry is only needed while tokens with the old version can still be
+ * valid, so it expires after one access-token lifetime. That keeps the map
+ * small, and a node that never saw the change (restart, other instance)
+ * stops accepting the old tokens once they expire. Refresh tokens are always
+ * checked against users.token_version.
+ */
+@Component
+public class TokenRevocationService {
+
+    @Value("${jwt.access-token-minutes:15}")
+    private long accessTokenMinutes;
+
+    private Cache<Long, Integer> minimumVersions;
+
+    @PostConstruct
+    public void init() {
+        minimumVersions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMinutes(accessTokenMinutes + 1)) // + clock skew
+                .build();
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Integer minimum = minimumVersions.getIfPresent(userId);
+        return minimum != null && tokenVersion < minimum;
+    }
+
+    // Tokens below 'currentVersion' stop working once the caller's transaction commits
+    public void revokeBeforeAfterCommit(Long userId, int currentVersion) {
+        AfterCommit.run(() -> minimumVersions.asMap().merge(userId, currentVersion, Math::max));
+    }
+}
@@ -0,0 +1,47 @@
+package com.edurent.crc.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.service.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded, short-lived cache of full UserEntity rows (school included) for
+ * the requests that still need more than the JWT principal carries.
+ * Cached instances are shared between requests: treat them as read-only and
+ * load a fresh copy through UserService before changing a user. Writers
+ * evict the entry (profile, password, deletion).
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<Long, UserEntity> users = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    public UserEntity get(Long userId) {
+        UserEntity user = users.get(userId, id -> userRepository.findWithSchoolByUserId(id).orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+        return user;
+    }
+
+    public void evict(Long userId) {
+        users.invalidate(userId);
+    }
+
+    public void evictAfterCommit(Long userId) {
+        AfterCommit.run(() -> users.invalidate(userId));
+    }
+}
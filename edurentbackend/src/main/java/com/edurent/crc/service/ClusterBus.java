@@ -0,0 +1,17 @@
+package com.edurent.crc.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub channel between backend instances. TopicPublisher sends every
+ * /topic message through it so that instances running the in-memory broker
+ * can deliver it to their own subscribers, and ClusterEvents sends cache
+ * invalidations. Messages are JSON strings and a publishing instance
+ * receives its own messages as well.
+ */
+public interface ClusterBus {
+
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
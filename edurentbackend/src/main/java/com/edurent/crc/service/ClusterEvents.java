@@ -0,0 +1,111 @@
+package com.edurent.crc.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Invalidation events between backend instances for the state each instance
+ * keeps in memory (search index, listing pages, conversation metadata,
+ * unread counters, read marks). The instance that commits a change updates
+ * its own copy and publishes an event; the others drop or reload theirs in
+ * the handler registered with on(). Events share the ClusterBus with
+ * TopicPublisher and are only sent when one is configured, so without
+ * app.websocket.cluster-bus.mode these caches are per instance and the
+ * backend must run as a single instance.
+ */
+@Component
+@Lazy(false) // Must subscribe to the cluster bus at startup
+public class ClusterEvents {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterEvents.class);
+
+    @Autowired(required = false)
+    private ClusterBus clusterBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Lets an instance skip its own events when they come back from the bus
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // event name -> handler (one per event; registered by the owning cache)
+    private final Map<String, Consumer<JsonNode>> handlers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        if (clusterBus != null) {
+            clusterBus.subscribe(this::onClusterMessage);
+        }
+    }
+
+    /**
+     * Runs the handler for events published by other instances. Handlers run
+     * on the bus listener thread, so they should only evict or do a short reload.
+     */
+    public <T> void on(String event, Class<T> type, Consumer<T> handler) {
+        handlers.put(event, data -> {
+            try {
+                handler.accept(objectMapper.treeToValue(data, type));
+            } catch (Exception e) {
+                log.warn("Cluster event {} failed: {}", event, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Tells the other instances about a committed change. Call it where the
+     * local copy is updated (after commit); sending happens off the calling
+     * thread so it never joins a transaction that has already finished.
+     */
+    public void publish(String event, Object data) {
+        if (clusterBus == null) {
+            return;
+        }
+        Envelope envelope = new Envelope(nodeId, event, objectMapper.valueToTree(data));
+        CompletableFuture.runAsync(() -> {
+            try {
+                clusterBus.publish(objectMapper.writeValueAsString(envelope));
+            } catch (Exception e) {
+                // Other instances keep a stale copy until it expires or is evicted again
+                log.warn("Failed to send cluster event {}: {}", event, e.getMessage());
+            }
+        });
+    }
+
+    private void onClusterMessage(String message) {
+        try {
+            JsonNode json = objectMapper.readTree(message);
+            if (!json.hasNonNull("event")) {
+                return; // A /topic message, handled by TopicPublisher
+            }
+            Envelope envelope = objectMapper.treeToValue(json, Envelope.class);
+            if (nodeId.equals(envelope.nodeId())) {
+                return;
+            }
+            Consumer<JsonNode> handler = handlers.get(envelope.event());
+            if (handler != null) {
+                handler.accept(envelope.data());
+            }
+        } catch (Exception e) {
+            log.warn("Dropped malformed cluster event: {}", e.getMessage());
+        }
+    }
+
+    // Wire format on the cluster bus
+    record Envelope(String nodeId, String event, JsonNode data) {
+    }
+}
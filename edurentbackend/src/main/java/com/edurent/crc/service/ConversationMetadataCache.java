@@ -0,0 +1,101 @@
+package com.edurent.crc.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.edurent.crc.entity.ConversationEntity;
+import com.edurent.crc.entity.ConversationParticipantEntity;
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.repository.ConversationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * What the message send path needs to know about a conversation (who is in
+ * it, whose listing it is about, whether that listing is sold), cached so a
+ * send does not reload the conversation, its listing and every participant.
+ * Participants never change after a conversation is created; listing status
+ * changes evict by listing, and entries expire so renamed titles and users
+ * catch up. Evictions are repeated on the other instances through ClusterEvents.
+ */
+@Component
+public class ConversationMetadataCache {
+
+    public record ConversationMeta(Long conversationId, Long listingId, String listingTitle, Long listingOwnerId,
+            boolean listingSold, Map<Long, String> participantNames) {
+
+        public boolean isParticipant(Long userId) {
+            return participantNames.containsKey(userId);
+        }
+    }
+
+    // Cluster events: conversation id / listing id evicted on another instance
+    private static final String EVICT_EVENT = "conversation-meta.evict";
+    private static final String EVICT_LISTING_EVENT = "conversation-meta.evict-listing";
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    private final Cache<Long, ConversationMeta> cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    @PostConstruct
+    public void subscribeToCluster() {
+        clusterEvents.on(EVICT_EVENT, Long.class, cache::invalidate);
+        clusterEvents.on(EVICT_LISTING_EVENT, Long.class, this::evictListing);
+    }
+
+    public ConversationMeta get(Long conversationId) {
+        ConversationMeta meta = cache.get(conversationId, this::load);
+        if (meta == null) {
+            throw new RuntimeException("Conversation not found: " + conversationId);
+        }
+        return meta;
+    }
+
+    private ConversationMeta load(Long conversationId) {
+        ConversationEntity conversation = conversationRepository.findWithParticipantsById(conversationId).orElse(null);
+        if (conversation == null) {
+            return null; // Not cached
+        }
+        Map<Long, String> participants = new HashMap<>();
+        for (ConversationParticipantEntity p : conversation.getParticipants()) {
+            participants.put(p.getUser().getUserId(), p.getUser().getFullName());
+        }
+        ListingEntity listing = conversation.getListing();
+        return listing == null
+                ? new ConversationMeta(conversationId, null, null, null, false, Map.copyOf(participants))
+                : new ConversationMeta(conversationId, listing.getListingId(), listing.getTitle(),
+                        listing.getUser().getUserId(), listing.getStatus().isSoldOrRented(), Map.copyOf(participants));
+    }
+
+    public void evictAfterCommit(Long conversationId) {
+        AfterCommit.run(() -> {
+            cache.invalidate(conversationId);
+            clusterEvents.publish(EVICT_EVENT, conversationId);
+        });
+    }
+
+    // Listing status decides the Sold/Purchased tabs of new unread messages
+    public void evictListingAfterCommit(Long listingId) {
+        AfterCommit.run(() -> {
+            evictListing(listingId);
+            clusterEvents.publish(EVICT_LISTING_EVENT, listingId);
+        });
+    }
+
+    private void evictListing(Long listingId) {
+        cache.asMap().values().removeIf(meta -> listingId.equals(meta.listingId()));
+    }
+}
@@ -3,25 +3,28 @@ package com.edurent.crc.service;
 import org.springframework.lang.NonNull;
 import java.util.Objects;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.edurent.crc.dto.CursorPageDTO;
 import com.edurent.crc.entity.ConversationEntity;
 import com.edurent.crc.entity.ConversationParticipantEntity;
 import com.edurent.crc.entity.ConversationParticipantIdEntity;
 import com.edurent.crc.entity.ListingEntity;
-import com.edurent.crc.entity.MessageEntity;
+import com.edurent.crc.entity.ListingStatus;
 import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.ConversationParticipantRepository;
 import com.edurent.crc.repository.ConversationRepository;
 import com.edurent.crc.repository.ListingRepository;
-import com.edurent.crc.repository.MessageRepository;
 import com.edurent.crc.repository.UserRepository;
 
 @Service
@@ -40,226 +43,103 @@ public class ConversationService {
     private ListingRepository listingRepository;
 
     @Autowired
-    private MessageRepository messageRepository;
+    private UnreadCountService unreadCountService;
 
-    // 1. Get Conversations for User (Optimized with batch queries)
-    public List<ConversationEntity> getConversationsForUser(@NonNull Long userId, int page, int size, String filter,
-            Long listingId) {
-        List<ConversationParticipantEntity> participants = participantRepository
-                .findById_UserIdAndIsDeletedFalse(userId);
-
-        if (participants.isEmpty()) {
-            return new ArrayList<>();
+    @Autowired
+    private ConversationMetadataCache conversationMetadataCache;
+
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+
+    // 1. Get Conversations for User (filter, order and keyset window resolved in one SQL query).
+    // cursor is the opaque nextCursor of the previous window (null for the newest).
+    public CursorPageDTO<ConversationEntity> getConversationsForUser(@NonNull Long userId, String cursor, int size,
+            String filter, Long listingId) {
+        KeysetCursor position = KeysetCursor.decode(cursor); // IllegalArgumentException if malformed
+        int limit = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+
+        // A. Translate the tab into SQL predicates (null = any)
+        boolean archived = false;
+        Boolean seller = null;
+        Boolean sold = null;
+        boolean unreadOnly = false;
+        switch (filter) {
+            case "Selling": // Active selling conversations
+                seller = true;
+                sold = false;
+                break;
+            case "Buying": // Active buying conversations
+                seller = false;
+                sold = false;
+                break;
+            case "Purchased": // Completed purchases: user is buyer AND item is sold/rented
+                seller = false;
+                sold = true;
+                break;
+            case "Sold":
+            case "My Sales": // Completed sales: user is seller AND item is sold/rented
+                seller = true;
+                sold = true;
+                break;
+            case "Unread":
+                unreadOnly = true;
+                break;
+            case "Archived":
+                archived = true;
+                break;
+            case "All": // Used by Product Detail Modal to find existing chats
+            case "All Messages":
+            default:
+                break;
         }
 
-        // Collect all conversation IDs for batch processing
-        List<Long> conversationIds = participants.stream()
-                .map(p -> p.getConversation().getConversationId())
-                .toList();
-
-        // Batch fetch all last messages at once (replaces N queries with 1)
-        List<MessageEntity> lastMessages = messageRepository.findLastMessagesForConversations(conversationIds);
-        java.util.Map<Long, MessageEntity> lastMessageMap = lastMessages.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        msg -> msg.getConversation().getConversationId(),
-                        msg -> msg,
-                        (a, b) -> a.getSentAt().isAfter(b.getSentAt()) ? a : b));
-
-        List<ConversationEntity> conversations = new ArrayList<>();
-
-        for (ConversationParticipantEntity p : participants) {
-            ConversationEntity conv = p.getConversation();
-
-            // New: Filter by Listing ID if provided
-            if (listingId != null && !conv.getListing().getListingId().equals(listingId)) {
-                continue;
-            }
-
-            // A. Use batch-fetched last message instead of individual query
-            MessageEntity lastMsg = lastMessageMap.get(conv.getConversationId());
-            if (lastMsg != null) {
-                if (p.getLastDeletedAt() == null || lastMsg.getSentAt().isAfter(p.getLastDeletedAt())) {
-                    conv.setLastMessageContent(lastMsg.getContent());
-                    conv.setLastMessageTimestamp(lastMsg.getSentAt());
-
-                    boolean isUnread = !Boolean.TRUE.equals(lastMsg.getRead())
-                            && !lastMsg.getSender().getUserId().equals(userId);
-                    conv.setIsUnread(isUnread);
-                } else {
-                    // Chat exists but history is cleared and no new messages
-                    conv.setLastMessageContent("Chat cleared");
-                    conv.setLastMessageTimestamp(p.getLastDeletedAt());
-                    conv.setIsUnread(false);
-                }
-            } else {
-                // Should not usually happen if chat exists, but handle it
-                conv.setLastMessageTimestamp(conv.getListing().getCreatedAt()); // Fallback
-            }
-
-            // B. Populate Archived Status (For the frontend filter - backend filtering
-            // happens next)
-            conv.setIsArchivedForCurrentUser(p.getIsArchived());
-
-            // --- FILTERING LOGIC ---
-            boolean match = false;
-
-            // "Selling": User is the owner of the listing
-            boolean isSeller = conv.getListing().getUser().getUserId().equals(userId);
-
-            // Check if listing is sold (status = "Sold" or "Rented")
-            String listingStatus = conv.getListing().getStatus();
-            boolean isSold = "Sold".equalsIgnoreCase(listingStatus) || "Rented".equalsIgnoreCase(listingStatus);
-
-            switch (filter) {
-                case "Selling":
-                    // Active selling conversations (not sold, not archived)
-                    if (isSeller && !isSold && !conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "Buying":
-                    // Active buying conversations (not sold, not archived)
-                    if (!isSeller && !isSold && !conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "Purchased":
-                    // Completed purchases: user is buyer AND item is sold/rented (not archived)
-                    if (!isSeller && isSold && !conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "Unread":
-                    // Unread conversations (not archived, any sold status)
-                    if (conv.getIsUnread() && !conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "Sold":
-                case "My Sales":
-                    // Completed sales: user is seller AND item is sold/rented (not archived)
-                    if (isSeller && isSold && !conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "Archived":
-                    if (conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "All":
-                    // All conversations regardless of sold status (not archived)
-                    // Used by Product Detail Modal to find existing chats
-                    if (!conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-                case "All Messages":
-                default:
-                    // All conversations including sold (not archived) - FIX: Now includes sold
-                    // items
-                    if (!conv.getIsArchivedForCurrentUser())
-                        match = true;
-                    break;
-            }
-
-            if (match) {
-                conversations.add(conv);
-            }
+        // B. One window of [conversationId, lastContent, lastAt, isUnread, isArchived], plus one
+        // extra row to learn whether another window exists
+        List<Object[]> rows = participantRepository.findInboxPage(userId, listingId, archived, seller, sold,
+                unreadOnly, ListingStatus.SOLD_OR_RENTED.from().getCode(), ListingStatus.SOLD_OR_RENTED.to().getCode(),
+                position.timestamp(), position.id(), limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Object[] last = rows.get(limit - 1);
+            nextCursor = KeysetCursor.encode(toLocalDateTime(last[2]), ((Number) last[0]).longValue());
         }
-
-        // C. Sort by Last Message Timestamp (Descending)
-        conversations.sort((a, b) -> {
-            LocalDateTime dateA = a.getLastMessageTimestamp() != null ? a.getLastMessageTimestamp() : LocalDateTime.MIN;
-            LocalDateTime dateB = b.getLastMessageTimestamp() != null ? b.getLastMessageTimestamp() : LocalDateTime.MIN;
-            return dateB.compareTo(dateA);
-        });
-
-        // D. Manual Pagination (Slice the list)
-        int start = Math.min(page * size, conversations.size());
-        int end = Math.min(start + size, conversations.size());
-
-        if (start >= conversations.size()) {
-            return new ArrayList<>();
+        if (rows.isEmpty()) {
+            return new CursorPageDTO<>(new ArrayList<>(), null, limit);
         }
 
-        return conversations.subList(start, end);
-    }
-
-    // 1.5 Get Unread Counts Per Filter (for tab badges)
-    public java.util.Map<String, Integer> getUnreadCountsPerFilter(@NonNull Long userId) {
-        List<ConversationParticipantEntity> participants = participantRepository
-                .findById_UserIdAndIsDeletedFalse(userId);
-
-        if (participants.isEmpty()) {
-            return java.util.Map.of(
-                    "All Messages", 0, "Selling", 0, "Buying", 0,
-                    "Purchased", 0, "Sold", 0, "Unread", 0, "Archived", 0);
+        // C. Hydrate just this page and restore the SQL order
+        List<Long> conversationIds = rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        Map<Long, ConversationEntity> byId = new HashMap<>();
+        for (ConversationEntity conv : conversationRepository.findWithListingByIdIn(conversationIds)) {
+            byId.put(conv.getConversationId(), conv);
         }
 
-        // Collect conversation IDs for batch processing
-        List<Long> conversationIds = participants.stream()
-                .map(p -> p.getConversation().getConversationId())
-                .toList();
-
-        // Batch fetch all last messages
-        List<MessageEntity> lastMessages = messageRepository.findLastMessagesForConversations(conversationIds);
-        java.util.Map<Long, MessageEntity> lastMessageMap = lastMessages.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        msg -> msg.getConversation().getConversationId(),
-                        msg -> msg,
-                        (a, b) -> a.getSentAt().isAfter(b.getSentAt()) ? a : b));
-
-        // Initialize counters
-        int allMessages = 0, selling = 0, buying = 0, purchased = 0, sold = 0, unread = 0, archived = 0;
-
-        for (ConversationParticipantEntity p : participants) {
-            ConversationEntity conv = p.getConversation();
-
-            // Get unread status
-            MessageEntity lastMsg = lastMessageMap.get(conv.getConversationId());
-            boolean isUnread = false;
-            if (lastMsg != null) {
-                if (p.getLastDeletedAt() == null || lastMsg.getSentAt().isAfter(p.getLastDeletedAt())) {
-                    isUnread = !Boolean.TRUE.equals(lastMsg.getRead())
-                            && !lastMsg.getSender().getUserId().equals(userId);
-                }
+        List<ConversationEntity> conversations = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ConversationEntity conv = byId.get(((Number) row[0]).longValue());
+            if (conv == null) {
+                continue; // Hard-deleted between the two queries
             }
+            conv.setLastMessageContent((String) row[1]);
+            conv.setLastMessageTimestamp(toLocalDateTime(row[2]));
+            conv.setIsUnread(Boolean.TRUE.equals(row[3]));
+            conv.setIsArchivedForCurrentUser(Boolean.TRUE.equals(row[4]));
+            conversations.add(conv);
+        }
+        return new CursorPageDTO<>(conversations, nextCursor, limit);
+    }
 
-            if (!isUnread)
-                continue; // Only count unread conversations
-
-            boolean isArchivedForUser = p.getIsArchived();
-            boolean isSeller = conv.getListing().getUser().getUserId().equals(userId);
-            String listingStatus = conv.getListing().getStatus();
-            boolean isSold = "Sold".equalsIgnoreCase(listingStatus) || "Rented".equalsIgnoreCase(listingStatus);
-
-            // Count by filter category
-            if (isArchivedForUser) {
-                archived++;
-            } else {
-                // All non-archived unread messages go into All Messages
-                allMessages++;
-                unread++; // Unread tab
-
-                if (isSeller) {
-                    if (isSold) {
-                        sold++; // My Sales
-                    } else {
-                        selling++; // Active selling
-                    }
-                } else {
-                    if (isSold) {
-                        purchased++; // Completed purchases
-                    } else {
-                        buying++; // Active buying
-                    }
-                }
-            }
+    // Native timestamp columns may come back as java.sql.Timestamp depending on the driver
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
         }
+        return (LocalDateTime) value;
+    }
 
-        java.util.Map<String, Integer> result = new java.util.HashMap<>();
-        result.put("All Messages", allMessages);
-        result.put("Selling", selling);
-        result.put("Buying", buying);
-        result.put("Purchased", purchased);
-        result.put("Sold", sold);
-        result.put("Unread", unread);
-        result.put("Archived", archived);
-        return result;
+    // 1.5 Get Unread Counts Per Filter (for tab badges; kept up to date in memory and pushed)
+    public java.util.Map<String, Integer> getUnreadCountsPerFilter(@NonNull Long userId) {
+        return unreadCountService.getCounts(userId);
     }
 
     // 2. Start Conversation
@@ -278,6 +158,7 @@ public class ConversationService {
                 if (p.getIsDeleted()) {
                     p.setIsDeleted(false);
                     participantRepository.save(p);
+                    unreadCountService.invalidateAfterCommit(starterId); // Restored chat may hold unread messages
                 }
             });
             return conv;
@@ -297,11 +178,15 @@ public class ConversationService {
         conversation.setListing(listing);
         ConversationEntity savedConversation = conversationRepository.save(conversation);
 
+        // An empty chat sorts by its listing's date, as before any message is sent
+        LocalDateTime initialActivity = listing.getCreatedAt() != null ? listing.getCreatedAt() : LocalDateTime.now();
+
         // 3. Add Participants
         ConversationParticipantIdEntity starterIdObj = new ConversationParticipantIdEntity(
                 savedConversation.getConversationId(), starter.getUserId());
         ConversationParticipantEntity starterParticipant = new ConversationParticipantEntity(starterIdObj,
                 savedConversation, starter);
+        starterParticipant.setLastActivityAt(initialActivity);
         // participantRepository.save(starterParticipant); REMOVED to avoid duplicate
         // session object
 
@@ -309,6 +194,7 @@ public class ConversationService {
                 savedConversation.getConversationId(), receiver.getUserId());
         ConversationParticipantEntity receiverParticipant = new ConversationParticipantEntity(receiverIdObj,
                 savedConversation, receiver);
+        receiverParticipant.setLastActivityAt(initialActivity);
         // participantRepository.save(receiverParticipant); REMOVED to avoid duplicate
         // session object
 
@@ -330,9 +216,12 @@ public class ConversationService {
                 .orElseThrow(() -> new RuntimeException("Participant record not found"));
 
         // 1. Soft delete for this user
+        LocalDateTime deletedAt = LocalDateTime.now();
         participant.setIsDeleted(true);
-        participant.setLastDeletedAt(LocalDateTime.now()); // Mark the timeline
+        participant.setLastDeletedAt(deletedAt); // Mark the timeline
         participantRepository.save(participant);
+        participantRepository.touchActivity(conversationId, userId, deletedAt); // "Chat cleared" sorts from here
+        unreadCountService.markReadAfterCommit(userId, conversationId);
 
         // 2. Check if ALL participants have deleted the chat
         ConversationEntity conversation = conversationRepository.findById(conversationId)
@@ -353,6 +242,7 @@ public class ConversationService {
         if (allParticipantsDeleted) {
             System.out.println("All participants deleted conversation " + conversationId + ". Performing hard delete.");
             conversationRepository.delete(Objects.requireNonNull(conversation));
+            conversationMetadataCache.evictAfterCommit(conversationId);
         }
     }
 
@@ -365,5 +255,6 @@ public class ConversationService {
 
         participant.setIsArchived(!participant.getIsArchived());
         participantRepository.save(participant);
+        unreadCountService.setArchivedAfterCommit(userId, conversationId, participant.getIsArchived());
     }
 }
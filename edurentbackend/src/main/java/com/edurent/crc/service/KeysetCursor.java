@@ -0,0 +1,44 @@
+package com.edurent.crc.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in a feed ordered by (timestamp DESC, id DESC). Clients get
+ * it as a Base64url string and send it back unchanged; the values are carried
+ * in the cursor itself, so the row it came from may since have changed or
+ * been deleted.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    // Position before the newest row (no cursor supplied yet)
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+
+    // Format (before Base64url): "<timestamp ISO>|<id>"
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(LocalDateTime timestamp, Long id) {
+        return new KeysetCursor(timestamp, id).encode();
+    }
+
+    // null/blank means START; anything malformed is an IllegalArgumentException
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -5,12 +5,10 @@ import java.util.Objects;
 
 import java.util.List;
 import java.util.Optional;
-import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import com.edurent.crc.entity.LikeEntity;
 import com.edurent.crc.entity.LikeIdEntity;
@@ -21,12 +19,13 @@ import com.edurent.crc.repository.LikeRepository;
 import com.edurent.crc.repository.ListingRepository;
 import com.edurent.crc.repository.NotificationRepository;
 import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.service.NotificationDispatcher.NotificationEvent;
 
 @Service
 public class LikeService {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationDispatcher notificationDispatcher;
 
     @Autowired
     private LikeRepository likeRepository;
@@ -65,43 +64,13 @@ public class LikeService {
         }
 
         if (!user.getUserId().equals(owner.getUserId())) {
-            String linkUrl = String.format("/listing/%d", listing.getListingId());
             String content = String.format("%s liked your listing: '%s'",
                     user.getFullName(),
                     listing.getTitle());
 
-            // Stock-up Logic: Check for existing like notification for this item
-            NotificationEntity notification = notificationRepository
-                    .findFirstByTypeAndUser_UserIdAndLinkUrlOrderByCreatedAtDesc("NEW_LIKE", owner.getUserId(), linkUrl)
-                    .orElse(new NotificationEntity());
-
-            // We update IF it's new OR if it's the same user (content check)
-            boolean isSameUser = notification.getContent() != null
-                    && notification.getContent().contains(user.getFullName());
-
-            if (notification.getNotificationId() == null || isSameUser) {
-                if (notification.getNotificationId() == null) {
-                    notification.setUser(owner);
-                    notification.setType("NEW_LIKE");
-                    notification.setLinkUrl(linkUrl);
-                }
-                notification.setContent(content);
-                notification.setCreatedAt(LocalDateTime.now()); // Bump timestamp
-                notification.setIsRead(false); // Mark as unread
-
-                NotificationEntity saved = notificationRepository.save(notification);
-                messagingTemplate.convertAndSend("/topic/user." + owner.getUserId(), saved);
-            } else {
-                // Different user liked the same item -> Create NEW notification
-                NotificationEntity newNotif = new NotificationEntity();
-                newNotif.setUser(owner);
-                newNotif.setType("NEW_LIKE");
-                newNotif.setContent(content);
-                newNotif.setLinkUrl(linkUrl);
-
-                NotificationEntity savedNew = notificationRepository.save(newNotif);
-                messagingTemplate.convertAndSend("/topic/user." + owner.getUserId(), savedNew);
-            }
+            // One NEW_LIKE per liker: like/unlike/like again by the same user reuses their row
+            notificationDispatcher.enqueueAfterCommit(NotificationEvent.upsert(owner.getUserId(), "NEW_LIKE",
+                    likeLink(listing.getListingId(), user.getUserId()), content));
         }
 
         LikeEntity like = new LikeEntity(likeId, user, listing);
@@ -139,12 +108,9 @@ public class LikeService {
 
         // 3. Find and delete the corresponding notification
         if (owner != null && !unliker.getUserId().equals(owner.getUserId())) {
-            String contentToDelete = String.format("<strong>%s</strong> liked your listing: <strong>%s</strong>",
-                    unliker.getFullName(),
-                    listing.getTitle());
-
             Optional<NotificationEntity> notifOptional = notificationRepository
-                    .findByTypeAndUser_UserIdAndContent("NEW_LIKE", owner.getUserId(), contentToDelete);
+                    .findFirstByTypeAndUser_UserIdAndLinkUrlOrderByCreatedAtDesc("NEW_LIKE", owner.getUserId(),
+                            likeLink(listingId, unliker.getUserId()));
 
             if (notifOptional.isPresent()) {
                 notificationRepository.delete(Objects.requireNonNull(notifOptional.get()));
@@ -154,4 +120,9 @@ public class LikeService {
             }
         }
     }
+
+    // NEW_LIKE link: opens the listing; the liker makes it the coalescing key of one like
+    private static String likeLink(Long listingId, Long likerId) {
+        return String.format("/listing/%d?likedBy=%d", listingId, likerId);
+    }
 }
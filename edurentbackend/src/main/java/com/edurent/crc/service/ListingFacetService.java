@@ -0,0 +1,74 @@
+package com.edurent.crc.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.edurent.crc.dto.FacetCountDTO;
+import com.edurent.crc.dto.ListingFilterDTO;
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.repository.ListingSpecifications;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Facet counts for the combined listing filter: one GROUP BY query per
+ * dimension, each applying every active filter except its own.
+ */
+@Service
+public class ListingFacetService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Map<String, List<FacetCountDTO>> countFacets(ListingFilterDTO filter, ListingStatus.Range statuses) {
+        Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+        facets.put(ListingSpecifications.CATEGORY, count(filter, statuses, ListingSpecifications.CATEGORY,
+                root -> root.get("category").get("categoryId"), root -> root.get("category").get("name")));
+        facets.put(ListingSpecifications.LISTING_TYPE, count(filter, statuses, ListingSpecifications.LISTING_TYPE,
+                root -> root.get("listingType"), null));
+        facets.put(ListingSpecifications.CONDITION, count(filter, statuses, ListingSpecifications.CONDITION,
+                root -> root.get("condition"), null));
+        facets.put(ListingSpecifications.SCHOOL, count(filter, statuses, ListingSpecifications.SCHOOL,
+                root -> root.get("user").get("school").get("schoolId"),
+                root -> root.get("user").get("school").get("name")));
+        facets.put(ListingSpecifications.ALLOW_MEETUP, count(filter, statuses, ListingSpecifications.ALLOW_MEETUP,
+                root -> root.get("allowMeetup"), null));
+        facets.put(ListingSpecifications.ALLOW_DELIVERY, count(filter, statuses,
+                ListingSpecifications.ALLOW_DELIVERY, root -> root.get("allowDelivery"), null));
+        return facets;
+    }
+
+    // SELECT value, label, COUNT(*) ... WHERE <filter minus dimension> GROUP BY value, label
+    private List<FacetCountDTO> count(ListingFilterDTO filter, ListingStatus.Range statuses, String dimension,
+            Function<Root<ListingEntity>, Path<?>> valueOf, Function<Root<ListingEntity>, Path<?>> labelOf) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<ListingEntity> root = query.from(ListingEntity.class);
+
+        Path<?> value = valueOf.apply(root);
+        Path<?> label = labelOf != null ? labelOf.apply(root) : value;
+        Expression<Long> total = cb.count(root);
+
+        query.multiselect(value, label, total)
+                .where(ListingSpecifications.matching(filter, statuses, dimension).toPredicate(root, query, cb))
+                .groupBy(labelOf != null ? List.of(value, label) : List.of(value))
+                .orderBy(cb.desc(total));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .filter(row -> row[0] != null)
+                .map(row -> new FacetCountDTO(String.valueOf(row[0]), String.valueOf(row[1]), (Long) row[2]))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,247 @@
+package com.edurent.crc.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Page cache for the public listing feeds, stored in the "listings" Caffeine
+ * cache as already-mapped DTO pages. It remembers which listing IDs each cached page holds and which
+ * feed ("all" or "category_{id}") it belongs to, so a write only evicts the
+ * pages it can affect instead of the whole cache:
+ * - in-place edits evict just the pages that contain the listing;
+ * - adding, removing or moving a listing also evicts the pages of the feeds
+ * it belongs to, because every later page shifts.
+ * First pages of the "all" feed are reloaded in the background after an
+ * eviction and before they expire, so the busiest keys rarely miss.
+ * Evictions are repeated on the other instances through ClusterEvents.
+ */
+@Component
+@Lazy(false)
+@DependsOn("listingStatusMigration") // Reads status through the smallint converter
+public class ListingPageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingPageCache.class);
+
+    public static final String CACHE_NAME = "listings";
+    public static final String ALL_FEED = "all";
+
+    // Cluster event: a PageEviction made on another instance
+    private static final String EVICT_EVENT = "listing-pages.evict";
+
+    // "All" first pages kept warm (bounded: size and view are client-controlled)
+    private static final int MAX_WARM_FIRST_PAGES = 4;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    // listingId -> cache keys whose page contains that listing
+    private final Map<Long, Set<String>> keysByListing = new ConcurrentHashMap<>();
+
+    // feed -> cache keys belonging to that feed
+    private final Map<String, Set<String>> keysByFeed = new ConcurrentHashMap<>();
+
+    // "all" first-page key -> reload task
+    private final Map<String, Runnable> firstPageRefreshers = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private final AtomicLong invalidationVersion = new AtomicLong();
+
+    private final AtomicLong keysEvicted = new AtomicLong();
+    private final AtomicLong feedsEvicted = new AtomicLong();
+
+    public static String categoryFeed(Long categoryId) {
+        return "category_" + categoryId;
+    }
+
+    @PostConstruct
+    public void subscribeToCluster() {
+        clusterEvents.on(EVICT_EVENT, PageEviction.class, e -> evict(e.listingId(), e.feeds()));
+    }
+
+    // --- Reads ---
+
+    /**
+     * Returns the cached page for (feed, page, size), loading and indexing it
+     * on a miss. 'listingIds' extracts the IDs shown on the page.
+     */
+    public <T> T getOrLoad(String feed, int page, int size, Supplier<T> loader,
+            Function<T, Collection<Long>> listingIds) {
+        return getOrLoad(feed, null, page, size, loader, listingIds);
+    }
+
+    /**
+     * Same as above for an alternative rendering of the feed (e.g. "cards").
+     * Views share the feed's invalidation.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String feed, String view, int page, int size, Supplier<T> loader,
+            Function<T, Collection<Long>> listingIds) {
+        String key = view == null ? feed + "_" + page + "_" + size : feed + "_" + view + "_" + page + "_" + size;
+        Cache.ValueWrapper cached = cache().get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        long version = invalidationVersion.get();
+        T value = loader.get();
+        store(feed, key, value, listingIds.apply(value), version);
+
+        if (ALL_FEED.equals(feed) && page == 0
+                && (firstPageRefreshers.containsKey(key) || firstPageRefreshers.size() < MAX_WARM_FIRST_PAGES)) {
+            firstPageRefreshers.put(key, () -> {
+                long refreshVersion = invalidationVersion.get();
+                T fresh = loader.get();
+                store(feed, key, fresh, listingIds.apply(fresh), refreshVersion);
+            });
+        }
+        return value;
+    }
+
+    private void store(String feed, String key, Object value, Collection<Long> listingIds, long version) {
+        keysByFeed.computeIfAbsent(feed, f -> ConcurrentHashMap.newKeySet()).add(key);
+        for (Long listingId : listingIds) {
+            keysByListing.computeIfAbsent(listingId, id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        cache().put(key, value);
+
+        // A write committed while we were loading: the value may be stale
+        if (invalidationVersion.get() != version) {
+            cache().evict(key);
+        }
+    }
+
+    // --- Invalidation ---
+
+    /**
+     * Evicts, after commit, the pages containing the listing plus every page
+     * of the given feeds. Pass no feeds for edits that neither add, remove nor
+     * reorder the listing.
+     */
+    public void evictAfterCommit(Long listingId, Collection<String> affectedFeeds) {
+        List<String> feeds = new ArrayList<>(affectedFeeds);
+        AfterCommit.run(() -> {
+            evict(listingId, feeds);
+            clusterEvents.publish(EVICT_EVENT, new PageEviction(listingId, feeds));
+        });
+    }
+
+    private void evict(Long listingId, List<String> feeds) {
+        invalidationVersion.incrementAndGet();
+        evictKeys(keysByListing.remove(listingId));
+        for (String feed : feeds) {
+            evictKeys(keysByFeed.remove(feed));
+            feedsEvicted.incrementAndGet();
+        }
+        if (feeds.contains(ALL_FEED)) {
+            CompletableFuture.runAsync(this::refreshFirstPages);
+        }
+    }
+
+    record PageEviction(Long listingId, List<String> feeds) {
+    }
+
+    // Feeds a listing appears in while it is publicly visible
+    public static List<String> feedsOf(Long categoryId) {
+        return List.of(ALL_FEED, categoryFeed(categoryId));
+    }
+
+    /**
+     * Status changes keep the feed order, so only the listing's pages go stale,
+     * unless the listing enters or leaves the public feeds (e.g. "Sold").
+     */
+    public void evictStatusChangeAfterCommit(ListingEntity listing, ListingStatus previousStatus) {
+        boolean visibilityChanged = ListingStatus.PUBLIC.contains(previousStatus) != listing.getStatus().isPublic();
+        evictAfterCommit(listing.getListingId(),
+                visibilityChanged ? feedsOf(listing.getCategory().getCategoryId()) : List.of());
+    }
+
+    private void evictKeys(Set<String> keys) {
+        if (keys == null) {
+            return;
+        }
+        Cache cache = cache();
+        for (String key : keys) {
+            cache.evict(key);
+        }
+        keysEvicted.addAndGet(keys.size());
+    }
+
+    // --- Background Upkeep ---
+
+    // Reload warm pages well before the 10-minute expiry in CacheConfig
+    @Scheduled(initialDelay = 5 * 60 * 1000, fixedDelay = 5 * 60 * 1000)
+    public void refreshFirstPages() {
+        // Loaders map lazy associations, so outside a request they need their own session
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (Map.Entry<String, Runnable> refresher : firstPageRefreshers.entrySet()) {
+            try {
+                readOnly.executeWithoutResult(status -> refresher.getValue().run());
+            } catch (Exception e) {
+                log.warn("Failed to refresh listing page {}: {}", refresher.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    // Drops index entries for pages Caffeine already expired and reports hit ratio
+    @Scheduled(initialDelay = 10 * 60 * 1000, fixedDelay = 10 * 60 * 1000)
+    public void pruneAndReport() {
+        Cache cache = cache();
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            return;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+        Set<Object> liveKeys = nativeCache.asMap().keySet();
+
+        keysByListing.values().forEach(keys -> keys.retainAll(liveKeys));
+        keysByListing.values().removeIf(Set::isEmpty);
+        keysByFeed.values().forEach(keys -> keys.retainAll(liveKeys));
+        keysByFeed.values().removeIf(Set::isEmpty);
+
+        CacheStats stats = nativeCache.stats();
+        log.info("Listing page cache: hitRate={} hits={} misses={} entries={} keysEvicted={} feedsEvicted={}",
+                String.format("%.3f", stats.hitRate()), stats.hitCount(), stats.missCount(),
+                nativeCache.estimatedSize(), keysEvicted.get(), feedsEvicted.get());
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+        }
+        return cache;
+    }
+}
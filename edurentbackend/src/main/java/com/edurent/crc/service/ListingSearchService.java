@@ -0,0 +1,436 @@
+package com.edurent.crc.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.repository.ListingRepository;
+
+/**
+ * In-memory inverted index over listing title, description and condition.
+ * Built from the database once the application is ready and kept up to date
+ * incrementally by ListingService after each write commits. Other instances
+ * are told through ClusterEvents and re-read the listing from the database.
+ * Ranking uses BM25 over field-weighted term frequencies; the last query
+ * term is also matched as a prefix so search-as-you-type works.
+ */
+@Service
+@Lazy(false)
+@DependsOn("listingStatusMigration") // Reads status through the smallint converter
+public class ListingSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSearchService.class);
+
+    // BM25 tuning (standard values)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field weights applied to term frequencies
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float CONDITION_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Prefix-only matches score slightly below exact matches
+    private static final double PREFIX_MATCH_FACTOR = 0.8;
+
+    // Caps how many index terms a single prefix may expand to
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // Cluster event: listing id whose document changed on another instance
+    private static final String REINDEX_EVENT = "search.reindex";
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "for", "of", "to", "in", "on", "with", "is", "at", "by", "or");
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    // term -> (listingId -> weighted term frequency)
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // listingId -> indexed document
+    private Map<Long, IndexedListing> documents = new HashMap<>();
+
+    private double totalLength = 0;
+
+    private volatile boolean ready = false;
+
+    // Non-null while a rebuild runs: changes applied meanwhile, replayed onto the new index
+    private List<Runnable> changesDuringRebuild;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Index Maintenance ---
+
+    @PostConstruct
+    public void subscribeToCluster() {
+        clusterEvents.on(REINDEX_EVENT, Long.class, this::reindexFromDatabase);
+    }
+
+    // Rebuilds the whole index from the listings table (runs once at startup)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, IndexedListing> newDocuments = new HashMap<>();
+        double newTotalLength = 0;
+
+        try {
+            for (Object[] row : listingRepository.findSearchDocuments()) {
+                Long listingId = (Long) row[0];
+                IndexedListing doc = buildDocument((String) row[1], (String) row[2], (String) row[3],
+                        (ListingStatus) row[4]);
+                newDocuments.put(listingId, doc);
+                newTotalLength += doc.length;
+                for (Map.Entry<String, Float> term : doc.termFrequencies.entrySet()) {
+                    newPostings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(listingId,
+                            term.getValue());
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+            totalLength = newTotalLength;
+            // Writes that committed while the snapshot was loading; all changes are idempotent
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Listing search index built: {} listings, {} terms in {} ms ({} concurrent changes replayed)",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start, replayed);
+    }
+
+    // Adds or replaces a listing once the surrounding transaction commits
+    public void indexAfterCommit(ListingEntity listing) {
+        Long listingId = listing.getListingId();
+        IndexedListing doc = buildDocument(listing.getTitle(), listing.getDescription(), listing.getCondition(),
+                listing.getStatus());
+        AfterCommit.run(() -> {
+            apply(() -> putInternal(listingId, doc));
+            clusterEvents.publish(REINDEX_EVENT, listingId);
+        });
+    }
+
+    // Removes a listing once the surrounding transaction commits
+    public void removeAfterCommit(Long listingId) {
+        AfterCommit.run(() -> {
+            apply(() -> removeInternal(listingId));
+            clusterEvents.publish(REINDEX_EVENT, listingId);
+        });
+    }
+
+    // Updates only the stored status (no re-tokenization needed)
+    public void updateStatusAfterCommit(Long listingId, ListingStatus status) {
+        AfterCommit.run(() -> {
+            apply(() -> {
+                IndexedListing doc = documents.get(listingId);
+                if (doc != null) {
+                    doc.status = status;
+                }
+            });
+            clusterEvents.publish(REINDEX_EVENT, listingId);
+        });
+    }
+
+    // A listing changed on another instance: index its committed row, or drop it if deleted
+    private void reindexFromDatabase(Long listingId) {
+        List<Object[]> rows = listingRepository.findSearchDocument(listingId);
+        if (rows.isEmpty()) {
+            apply(() -> removeInternal(listingId));
+            return;
+        }
+        Object[] row = rows.get(0);
+        IndexedListing doc = buildDocument((String) row[1], (String) row[2], (String) row[3], (ListingStatus) row[4]);
+        apply(() -> putInternal(listingId, doc));
+    }
+
+    // Runs an index change under the write lock, recording it if a rebuild is in progress
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void putInternal(Long listingId, IndexedListing doc) {
+        removeInternal(listingId);
+        documents.put(listingId, doc);
+        totalLength += doc.length;
+        for (Map.Entry<String, Float> term : doc.termFrequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(listingId, term.getValue());
+        }
+    }
+
+    // Caller must hold the write lock
+    private void removeInternal(Long listingId) {
+        IndexedListing existing = documents.remove(listingId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.termFrequencies.keySet()) {
+            Map<Long, Float> list = postings.get(term);
+            if (list != null) {
+                list.remove(listingId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // --- Querying ---
+
+    /**
+     * Returns the listing IDs for the requested page, best match first.
+     * Every query term must match (AND semantics); the last term also matches
+     * as a prefix.
+     */
+    public SearchResult search(String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || size <= 0 || page < 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (!ready || documents.isEmpty()) {
+                return SearchResult.EMPTY;
+            }
+
+            int docCount = documents.size();
+            double avgLength = totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean isLast = i == tokens.size() - 1;
+                Map<Long, Double> tokenScores = scoreToken(tokens.get(i), isLast, docCount, avgLength);
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Keep only listings that matched every previous term
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            merged.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = merged;
+                }
+
+                if (scores.isEmpty()) {
+                    return SearchResult.EMPTY;
+                }
+            }
+
+            return topHits(scores, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Scores every searchable listing containing the token (or a term starting
+    // with it, for the last token). Caller must hold the read lock.
+    private Map<Long, Double> scoreToken(String token, boolean allowPrefix, int docCount, double avgLength) {
+        Map<Long, Double> tokenScores = new HashMap<>();
+
+        Map<String, Map<Long, Float>> matchingTerms;
+        if (allowPrefix) {
+            matchingTerms = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        } else {
+            Map<Long, Float> exact = postings.get(token);
+            matchingTerms = exact == null ? Collections.emptyMap() : Map.of(token, exact);
+        }
+
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> term : matchingTerms.entrySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<Long, Float> list = term.getValue();
+            double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+            double factor = term.getKey().equals(token) ? 1.0 : PREFIX_MATCH_FACTOR;
+
+            for (Map.Entry<Long, Float> posting : list.entrySet()) {
+                IndexedListing doc = documents.get(posting.getKey());
+                if (doc == null || !ListingStatus.PUBLIC.contains(doc.status)) {
+                    continue;
+                }
+                double tf = posting.getValue();
+                double norm = (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * doc.length / avgLength));
+                // A token can expand to several terms; keep its best match per listing
+                tokenScores.merge(posting.getKey(), idf * norm * factor, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    // Selects one page of hits with a bounded heap instead of sorting every match
+    private SearchResult topHits(Map<Long, Double> scores, int page, int size) {
+        int total = scores.size();
+        long wanted = (long) (page + 1) * size;
+        if (page * (long) size >= total) {
+            return new SearchResult(Collections.emptyList(), total);
+        }
+        int limit = (int) Math.min(wanted, total);
+
+        // Best match first; ties go to the newer (higher ID) listing
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+
+        int from = page * size;
+        return new SearchResult(new ArrayList<>(ranked.subList(from, ranked.size())), total);
+    }
+
+    // --- Tokenization ---
+
+    private IndexedListing buildDocument(String title, String description, String condition,
+            ListingStatus status) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addTerms(frequencies, title, TITLE_WEIGHT);
+        length += addTerms(frequencies, condition, CONDITION_WEIGHT);
+        length += addTerms(frequencies, description, DESCRIPTION_WEIGHT);
+        return new IndexedListing(frequencies, length, status);
+    }
+
+    private float addTerms(Map<String, Float> frequencies, String text, float weight) {
+        float added = 0;
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, weight, Float::sum);
+            added += weight;
+        }
+        return added;
+    }
+
+    // Lower-cases and splits on anything that is not a letter or digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                String token = current.toString();
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                current.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    // --- Internal Types ---
+
+    private static final class IndexedListing {
+        private final Map<String, Float> termFrequencies;
+        private final float length;
+        private ListingStatus status; // guarded by the index lock
+
+        private IndexedListing(Map<String, Float> termFrequencies, float length, ListingStatus status) {
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+            this.status = status;
+        }
+    }
+
+    /**
+     * One page of ranked listing IDs plus the total number of matches.
+     */
+    public static final class SearchResult {
+        static final SearchResult EMPTY = new SearchResult(Collections.emptyList(), 0);
+
+        private final List<Long> listingIds;
+        private final int totalHits;
+
+        public SearchResult(List<Long> listingIds, int totalHits) {
+            this.listingIds = listingIds;
+            this.totalHits = totalHits;
+        }
+
+        public List<Long> getListingIds() {
+            return listingIds;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+    }
+}
@@ -4,17 +4,19 @@ import org.springframework.lang.NonNull;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -23,14 +25,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.edurent.crc.dto.CursorPageDTO;
+import com.edurent.crc.dto.ListingCardDTO;
+import com.edurent.crc.dto.ListingDTO;
+import com.edurent.crc.dto.ListingFilterDTO;
+import com.edurent.crc.dto.ListingFilterResultDTO;
 import com.edurent.crc.entity.CategoryEntity;
 import com.edurent.crc.entity.ListingEntity;
 import com.edurent.crc.entity.ListingImageEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.entity.TransactionEntity;
 import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.mapper.ListingMapper;
 import com.edurent.crc.repository.CategoryRepository;
 import com.edurent.crc.repository.ListingImageRepository;
 import com.edurent.crc.repository.ListingRepository;
+import com.edurent.crc.repository.ListingSpecifications;
+import com.edurent.crc.repository.TransactionRepository;
 import com.edurent.crc.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class ListingService {
@@ -43,22 +56,49 @@ public class ListingService {
     private CategoryRepository categoryRepository;
     @Autowired
     private ListingImageRepository listingImageRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
 
     @Autowired
     private CloudinaryService cloudinaryService;
 
-    // Centralized list of statuses visible to the public (Dashboard, Browse,
-    // Categories)
-    private final List<String> PUBLIC_STATUSES = Arrays.asList("Available", "Rented", "AVAILABLE", "RENTED");
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    @Autowired
+    private ListingPageCache listingPageCache;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private ConversationMetadataCache conversationMetadataCache;
+
+    @Autowired
+    private ListingFacetService listingFacetService;
+
+    @Autowired
+    private ListingMapper listingMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Statuses visible to the public (Dashboard, Browse, Categories)
+    private static final ListingStatus.Range PUBLIC_STATUSES = ListingStatus.PUBLIC;
 
     // Statuses visible on a user's public profile (Includes Sold history)
-    private final List<String> PROFILE_STATUSES = Arrays.asList("Available", "Rented", "Sold", "AVAILABLE", "RENTED",
-            "SOLD");
+    private static final ListingStatus.Range PROFILE_STATUSES = ListingStatus.PROFILE;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_FILTER_PAGE_SIZE = 100;
+
+    // Page cache view name for the card projection of a feed
+    private static final String CARD_VIEW = "cards";
 
     // --- Core Listing Logic ---
 
     @Transactional
-    @CacheEvict(value = "listings", allEntries = true)
     public ListingEntity createListingWithImages(ListingEntity listing, @NonNull Long userId, @NonNull Long categoryId,
             List<MultipartFile> images) throws IOException {
         // 1. Fetch User and Category
@@ -71,7 +111,7 @@ public class ListingService {
         listing.setUser(user);
         listing.setCategory(category);
         listing.setCreatedAt(LocalDateTime.now());
-        listing.setStatus("Available");
+        listing.setStatus(ListingStatus.AVAILABLE);
 
         // 3. Save Listing First (to get the ID)
         ListingEntity savedListing = listingRepository.save(listing);
@@ -115,11 +155,12 @@ public class ListingService {
             listingImageRepository.saveAll(listingImages);
         }
 
+        listingSearchService.indexAfterCommit(savedListing);
+        listingPageCache.evictAfterCommit(savedListing.getListingId(), ListingPageCache.feedsOf(categoryId));
         return savedListing;
     }
 
     @Transactional
-    @CacheEvict(value = "listings", allEntries = true)
     public ListingEntity updateListing(
             String listingIdentifier,
             @NonNull Long currentUserId,
@@ -145,6 +186,9 @@ public class ListingService {
         CategoryEntity category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found: " + categoryId));
 
+        // Moving categories shifts both category feeds; other edits stay in place
+        Long previousCategoryId = existingListing.getCategory().getCategoryId();
+
         // Update basic fields
         existingListing.setTitle(updateData.getTitle());
         existingListing.setCategory(category);
@@ -219,16 +263,27 @@ public class ListingService {
             existingListing.getImages().iterator().next().setCoverPhoto(true);
         }
 
-        return listingRepository.save(existingListing);
+        ListingEntity savedListing = listingRepository.save(existingListing);
+        listingSearchService.indexAfterCommit(savedListing);
+        listingPageCache.evictAfterCommit(savedListing.getListingId(), previousCategoryId.equals(categoryId)
+                ? List.of()
+                : List.of(ListingPageCache.categoryFeed(previousCategoryId), ListingPageCache.categoryFeed(categoryId)));
+        return savedListing;
     }
 
     // --- Data Retrieval Methods ---
 
-    @Cacheable(value = "listings", key = "'all_' + #page + '_' + #size")
     public Page<ListingEntity> getAllListings(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         // Only return visible statuses to the public feed
-        return listingRepository.findByStatusIn(PUBLIC_STATUSES, pageable);
+        return listingRepository.findByStatusBetween(PUBLIC_STATUSES.from(), PUBLIC_STATUSES.to(), pageable);
+    }
+
+    // Browse feeds are cached as mapped DTO pages together with their JSON and
+    // gzip bytes, so a hit does no Hibernate, mapping or serialization work
+    public SerializedPage<Page<ListingDTO>> getAllListingsSerialized(int page, int size) {
+        return listingPageCache.getOrLoad(ListingPageCache.ALL_FEED, page, size,
+                () -> toCachedPage(getAllListings(page, size)), ListingService::listingIdsOf);
     }
 
     public Optional<ListingEntity> getListingById(@NonNull Long listingId) {
@@ -249,47 +304,222 @@ public class ListingService {
         if (includeInactive) {
             return listingRepository.findByUserId(userId, pageable);
         } else {
-            List<String> statusesToFetch;
-            if ("active".equalsIgnoreCase(statusGroup)) {
-                statusesToFetch = Arrays.asList("Available", "Rented", "AVAILABLE", "RENTED");
-            } else if ("sold".equalsIgnoreCase(statusGroup)) {
-                statusesToFetch = Arrays.asList("Sold", "SOLD");
-            } else {
-                // Default: All public profile statuses (Active + Sold)
-                statusesToFetch = PROFILE_STATUSES;
-            }
+            ListingStatus.Range statusesToFetch = profileStatusGroup(statusGroup);
 
             if (listingType != null && !listingType.isEmpty()) {
                 String formattedType = listingType.equalsIgnoreCase("rent") ? "For Rent"
                         : listingType.equalsIgnoreCase("sale") ? "For Sale" : listingType;
-                return listingRepository.findByUser_UserIdAndListingTypeAndStatusIn(userId, formattedType,
-                        statusesToFetch, pageable);
+                return listingRepository.findByUser_UserIdAndListingTypeAndStatusBetween(userId, formattedType,
+                        statusesToFetch.from(), statusesToFetch.to(), pageable);
             } else {
-                return listingRepository.findByUser_UserIdAndStatusIn(userId, statusesToFetch, pageable);
+                return listingRepository.findByUser_UserIdAndStatusBetween(userId, statusesToFetch.from(),
+                        statusesToFetch.to(), pageable);
             }
         }
     }
 
+    // "active" -> Available/Rented, "sold" -> Sold, anything else -> all profile statuses
+    private static ListingStatus.Range profileStatusGroup(String statusGroup) {
+        if ("active".equalsIgnoreCase(statusGroup)) {
+            return PUBLIC_STATUSES;
+        } else if ("sold".equalsIgnoreCase(statusGroup)) {
+            return ListingStatus.SOLD_ONLY;
+        }
+        return PROFILE_STATUSES;
+    }
+
     // Kept for backward compatibility if needed, though controller uses the new one
     public Page<ListingEntity> getListingsByUserId(@NonNull Long userId, int page, int size, boolean includeInactive) {
         return getListingsByUserId(userId, page, size, includeInactive, null, null);
     }
 
-    @Cacheable(value = "listings", key = "'category_' + #categoryId + '_' + #page + '_' + #size")
     public Page<ListingEntity> getListingsByCategoryId(@NonNull Long categoryId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return listingRepository.findByCategory_CategoryIdAndStatusIn(categoryId, PUBLIC_STATUSES, pageable);
+        return listingRepository.findByCategory_CategoryIdAndStatusBetween(categoryId, PUBLIC_STATUSES.from(),
+                PUBLIC_STATUSES.to(), pageable);
+    }
+
+    public SerializedPage<Page<ListingDTO>> getListingsByCategoryIdSerialized(@NonNull Long categoryId, int page,
+            int size) {
+        return listingPageCache.getOrLoad(ListingPageCache.categoryFeed(categoryId), page, size,
+                () -> toCachedPage(getListingsByCategoryId(categoryId, page, size)), ListingService::listingIdsOf);
+    }
+
+    // Maps while the session is still open, freezes the content and serializes once
+    private SerializedPage<Page<ListingDTO>> toCachedPage(Page<ListingEntity> entities) {
+        List<ListingDTO> content = List.copyOf(toDTOList(entities.getContent()));
+        Page<ListingDTO> page = new PageImpl<>(content, entities.getPageable(), entities.getTotalElements());
+        return SerializedPage.of(page, objectMapper);
+    }
+
+    // IDs shown on a cached page, used for targeted eviction
+    private static List<Long> listingIdsOf(SerializedPage<Page<ListingDTO>> cached) {
+        return cached.getValue().getContent().stream().map(ListingDTO::getListingId).collect(Collectors.toList());
+    }
+
+    // --- Combined Filter ---
+
+    // One page of listings matching every given filter, plus facet counts
+    public ListingFilterResultDTO filterListings(ListingFilterDTO filter, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        size = Math.min(size, MAX_FILTER_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Page<ListingEntity> listings = listingRepository.findAll(
+                ListingSpecifications.matching(filter, PUBLIC_STATUSES), pageable);
+        return new ListingFilterResultDTO(toDTOPage(listings),
+                listingFacetService.countFacets(filter, PUBLIC_STATUSES));
+    }
+
+    // --- DTO Assembly ---
+
+    // Maps listings with two batch queries (images, latest transaction) for the
+    // whole page instead of initializing each row's lazy collections
+    public List<ListingDTO> toDTOList(List<ListingEntity> listings) {
+        if (listings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> listingIds = listings.stream().map(ListingEntity::getListingId).collect(Collectors.toList());
+
+        Map<Long, List<ListingImageEntity>> imagesByListing = listingImageRepository.findByListingIdIn(listingIds)
+                .stream()
+                .collect(Collectors.groupingBy(image -> image.getListing().getListingId()));
+        Map<Long, List<TransactionEntity>> transactionsByListing = transactionRepository
+                .findLatestByListingIds(listingIds).stream()
+                .collect(Collectors.groupingBy(transaction -> transaction.getListing().getListingId()));
+
+        return listings.stream()
+                .map(listing -> listingMapper.toDTO(listing,
+                        imagesByListing.get(listing.getListingId()),
+                        transactionsByListing.get(listing.getListingId())))
+                .collect(Collectors.toList());
+    }
+
+    public Page<ListingDTO> toDTOPage(Page<ListingEntity> entities) {
+        return new PageImpl<>(toDTOList(entities.getContent()), entities.getPageable(), entities.getTotalElements());
+    }
+
+    public CursorPageDTO<ListingDTO> toDTOCursorPage(CursorPageDTO<ListingEntity> entities) {
+        return new CursorPageDTO<>(toDTOList(entities.getContent()), entities.getNextCursor(), entities.getSize());
+    }
+
+    // --- Card Feeds (compact projection for browse grids) ---
+
+    public SerializedPage<Page<ListingCardDTO>> getAllListingCards(int page, int size) {
+        return listingPageCache.getOrLoad(ListingPageCache.ALL_FEED, CARD_VIEW, page, size, () -> {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            return SerializedPage.of(listingRepository.findCardsByStatusBetween(PUBLIC_STATUSES.from(),
+                    PUBLIC_STATUSES.to(), pageable), objectMapper);
+        }, ListingService::cardIdsOf);
+    }
+
+    public SerializedPage<Page<ListingCardDTO>> getListingCardsByCategoryId(@NonNull Long categoryId, int page,
+            int size) {
+        return listingPageCache.getOrLoad(ListingPageCache.categoryFeed(categoryId), CARD_VIEW, page, size, () -> {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            return SerializedPage.of(
+                    listingRepository.findCardsByCategoryAndStatusBetween(categoryId, PUBLIC_STATUSES.from(),
+                            PUBLIC_STATUSES.to(), pageable),
+                    objectMapper);
+        }, ListingService::cardIdsOf);
+    }
+
+    public Page<ListingCardDTO> getListingCardsByType(String listingType, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return listingRepository.findCardsByListingTypeAndStatusBetween(listingType, PUBLIC_STATUSES.from(),
+                PUBLIC_STATUSES.to(), pageable);
+    }
+
+    private static List<Long> cardIdsOf(SerializedPage<Page<ListingCardDTO>> cached) {
+        return cached.getValue().getContent().stream().map(ListingCardDTO::getListingId)
+                .collect(Collectors.toList());
     }
 
     public Page<ListingEntity> getListingsByType(String listingType, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return listingRepository.findByListingTypeAndStatusIn(listingType, PUBLIC_STATUSES, pageable);
+        return listingRepository.findByListingTypeAndStatusBetween(listingType, PUBLIC_STATUSES.from(),
+                PUBLIC_STATUSES.to(), pageable);
+    }
+
+    // --- Cursor (Keyset) Feeds ---
+    // Infinite-scroll variants of the browse queries above. They seek past the
+    // last (createdAt, listingId) seen instead of using OFFSET, and skip the
+    // COUNT query, so every window costs the same no matter how deep it is.
+
+    public CursorPageDTO<ListingEntity> getAllListingsByCursor(String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = clampCursorSize(size);
+        return toCursorPage(listingRepository.findPublicBefore(position.timestamp(), position.id(),
+                PageRequest.of(0, limit + 1)), limit);
+    }
+
+    public CursorPageDTO<ListingEntity> getListingsByCategoryIdByCursor(@NonNull Long categoryId, String cursor,
+            int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = clampCursorSize(size);
+        return toCursorPage(listingRepository.findPublicByCategoryBefore(categoryId,
+                position.timestamp(), position.id(), PageRequest.of(0, limit + 1)), limit);
+    }
+
+    public CursorPageDTO<ListingEntity> getListingsByTypeByCursor(String listingType, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = clampCursorSize(size);
+        return toCursorPage(listingRepository.findPublicByListingTypeBefore(listingType,
+                position.timestamp(), position.id(), PageRequest.of(0, limit + 1)), limit);
+    }
+
+    // Public profile feed; statusGroup works like getListingsByUserId ("active", "sold" or null)
+    public CursorPageDTO<ListingEntity> getListingsByUserIdByCursor(@NonNull Long userId, String statusGroup,
+            String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int limit = clampCursorSize(size);
+        ListingStatus.Range statuses = profileStatusGroup(statusGroup);
+        return toCursorPage(listingRepository.findByUserAndStatusBetweenBefore(userId, statuses.from(), statuses.to(),
+                position.timestamp(), position.id(), PageRequest.of(0, limit + 1)), limit);
+    }
+
+    // We fetch one extra row to learn whether another window exists
+    private CursorPageDTO<ListingEntity> toCursorPage(List<ListingEntity> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPageDTO<>(rows, null, limit);
+        }
+        List<ListingEntity> window = rows.subList(0, limit);
+        ListingEntity last = window.get(window.size() - 1);
+        return new CursorPageDTO<>(window, KeysetCursor.encode(last.getCreatedAt(), last.getListingId()), limit);
+    }
+
+    private int clampCursorSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // Full-text search served from the in-memory index; the database is only
+    // hit by primary key to hydrate the ranked page.
+    public Page<ListingEntity> searchListings(String query, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        size = Math.min(size, MAX_SEARCH_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(page, size);
+        ListingSearchService.SearchResult result = listingSearchService.search(query, page, size);
+        if (result.getListingIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.getTotalHits());
+        }
+
+        Map<Long, ListingEntity> listingsById = listingRepository.findByListingIdIn(result.getListingIds()).stream()
+                .collect(Collectors.toMap(ListingEntity::getListingId, Function.identity()));
+
+        // Restore ranking order
+        List<ListingEntity> ranked = result.getListingIds().stream()
+                .map(listingsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(ranked, pageable, result.getTotalHits());
     }
 
     // --- Listing Management ---
 
     @Transactional
-    @CacheEvict(value = "listings", allEntries = true)
     public void deleteListing(@NonNull Long listingId, @NonNull Long currentUserId) {
         ListingEntity existingListing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found: " + listingId));
@@ -305,10 +535,12 @@ public class ListingService {
             }
         }
         listingRepository.delete(existingListing);
+        listingSearchService.removeAfterCommit(listingId);
+        listingPageCache.evictAfterCommit(listingId,
+                ListingPageCache.feedsOf(existingListing.getCategory().getCategoryId()));
     }
 
     @Transactional
-    @CacheEvict(value = "listings", allEntries = true)
     public void updateListingStatus(@NonNull Long listingId, String newStatus, @NonNull Long currentUserId) {
         ListingEntity listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found: " + listingId));
@@ -317,7 +549,13 @@ public class ListingService {
             throw new AccessDeniedException("User does not have permission to edit this listing.");
         }
 
-        listing.setStatus(newStatus);
+        ListingStatus status = ListingStatus.fromLabel(newStatus); // IllegalArgumentException if unknown
+        ListingStatus previousStatus = listing.getStatus();
+        listing.setStatus(status);
         listingRepository.save(listing);
+        listingSearchService.updateStatusAfterCommit(listingId, status);
+        listingPageCache.evictStatusChangeAfterCommit(listing, previousStatus);
+        unreadCountService.listingStatusChangedAfterCommit(listing.getListingId(), listing.getStatus());
+        conversationMetadataCache.evictListingAfterCommit(listing.getListingId());
     }
 }
\ No newline at end of file
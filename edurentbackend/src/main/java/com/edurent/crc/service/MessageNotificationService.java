@@ -0,0 +1,60 @@
+package com.edurent.crc.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.edurent.crc.entity.ConversationParticipantEntity;
+import com.edurent.crc.entity.ConversationParticipantIdEntity;
+import com.edurent.crc.repository.ConversationParticipantRepository;
+import com.edurent.crc.service.NotificationDispatcher.NotificationEvent;
+
+/**
+ * NEW_MESSAGE notifications, built off the request thread once the message
+ * has committed: words the recipient's per-conversation notification from
+ * their unread counter and hands it to the NotificationDispatcher, which
+ * upserts it and pushes it together with the message on /topic/user.{id}.
+ * A burst of messages in one conversation becomes a single write.
+ */
+@Service
+public class MessageNotificationService {
+
+    @Autowired
+    private ConversationParticipantRepository participantRepository;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Async
+    @Transactional(readOnly = true)
+    public void notifyNewMessage(Map<String, Object> messagePayload, Long conversationId, String senderName,
+            String productName, Collection<Long> recipientIds) {
+        String linkUrl = "/messages/" + conversationId;
+        for (Long recipientId : recipientIds) {
+            // Unread count comes from the participant counter (no count over messages)
+            int unreadCount = participantRepository
+                    .findById(new ConversationParticipantIdEntity(conversationId, recipientId))
+                    .map(ConversationParticipantEntity::getUnreadCount)
+                    .orElse(1);
+
+            // Construct Content based on count
+            String content;
+            if (unreadCount > 1) {
+                content = String.format("<strong>%s</strong> sent %d new messages about <strong>%s</strong>",
+                        senderName, unreadCount, productName);
+            } else {
+                content = String.format("<strong>%s</strong> messaged you about <strong>%s</strong>",
+                        senderName, productName);
+            }
+
+            // Message fields plus the notification, for the sidebar and the header badge
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.upsert(recipientId, "NEW_MESSAGE", linkUrl, content)
+                            .withPushPayload(messagePayload));
+        }
+    }
+}
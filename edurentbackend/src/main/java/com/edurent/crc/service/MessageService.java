@@ -4,38 +4,37 @@ import org.springframework.lang.NonNull;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.edurent.crc.entity.ConversationEntity;
-
 import com.edurent.crc.entity.ConversationParticipantEntity;
 import com.edurent.crc.entity.ConversationParticipantIdEntity;
 
 import com.edurent.crc.entity.MessageEntity;
-import com.edurent.crc.entity.NotificationEntity;
 import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.ConversationParticipantRepository;
 import com.edurent.crc.repository.ConversationRepository;
 
 import com.edurent.crc.repository.MessageRepository;
-import com.edurent.crc.repository.NotificationRepository;
-import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.service.ConversationMetadataCache.ConversationMeta;
 
 @Service
 public class MessageService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    // Lower bound for users who never cleared the chat
+    private static final LocalDateTime FULL_HISTORY = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private MessageRepository messageRepository;
 
@@ -43,171 +42,136 @@ public class MessageService {
     private ConversationRepository conversationRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ConversationParticipantRepository participantRepository;
 
     @Autowired
-    private ConversationParticipantRepository participantRepository;
+    private TopicPublisher topicPublisher;
 
     @Autowired
-    private NotificationRepository notificationRepository;
+    private UnreadCountService unreadCountService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ReadReceiptService readReceiptService;
 
-    // 1. Get Messages (Updated to filter by deletion history)
-    public List<MessageEntity> getMessagesForConversation(@NonNull Long conversationId, @NonNull Long userId, int page,
-            int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("sentAt").descending());
+    @Autowired
+    private ConversationMetadataCache conversationMetadataCache;
+
+    @Autowired
+    private MessageNotificationService messageNotificationService;
 
-        // Find the participant info to check if they cleared history
+    // 1. Get Messages (keyset: newest first, optionally older than 'beforeMessageId';
+    // filtered by the user's deletion history)
+    public Slice<MessageEntity> getMessagesForConversation(@NonNull Long conversationId, @NonNull Long userId,
+            Long beforeMessageId, int size) {
+        Pageable limit = PageRequest.ofSize(Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE)));
+
+        // Only show messages sent AFTER the user cleared the chat, if they did
         ConversationParticipantIdEntity partId = new ConversationParticipantIdEntity(conversationId, userId);
-        ConversationParticipantEntity participant = participantRepository.findById(partId).orElse(null);
-
-        Page<MessageEntity> messagePage;
-
-        if (participant != null && participant.getLastDeletedAt() != null) {
-            // Only fetch messages sent AFTER the deletion timestamp
-            messagePage = messageRepository.findByConversationIdAndSentAtAfter(
-                    conversationId,
-                    participant.getLastDeletedAt(),
-                    pageable);
-        } else {
-            // Fetch full history
-            messagePage = messageRepository.findByConversationId(conversationId, pageable);
+        LocalDateTime after = participantRepository.findById(partId)
+                .map(ConversationParticipantEntity::getLastDeletedAt)
+                .orElse(FULL_HISTORY);
+        if (after == null) {
+            after = FULL_HISTORY;
         }
 
-        List<MessageEntity> messages = new ArrayList<>(messagePage.getContent());
-        Collections.reverse(messages);
-        return messages;
+        if (beforeMessageId == null) {
+            return messageRepository.findLatestByConversationId(conversationId, after, limit);
+        }
+
+        MessageEntity cursor = messageRepository.findById(beforeMessageId)
+                .filter(m -> m.getConversation().getConversationId().equals(conversationId))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown message cursor: " + beforeMessageId));
+        return messageRepository.findOlderByConversationId(conversationId, after, cursor.getSentAt(),
+                cursor.getMessageId(), limit);
     }
 
     // 2. Send Message with Real-Time Broadcasting
+    // Lean path: cached conversation metadata, references instead of loads, one
+    // statement for all participant rows; notifications run after commit, off-thread.
     @Transactional
-    public MessageEntity sendMessage(MessageEntity message, @NonNull Long conversationId, @NonNull Long senderId) {
-        ConversationEntity conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found: " + conversationId));
-
-        UserEntity sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("Sender not found: " + senderId));
-
-        // When a new message is sent, un-delete the conversation for participants
-        // so they can see the new message. The lastDeletedAt timestamp is preserved,
-        // so User A only sees messages AFTER their deletion time.
-        // User B continues to see the full history.
-        if (conversation.getParticipants() != null) {
-            for (ConversationParticipantEntity participant : conversation.getParticipants()) {
-                boolean updated = false;
-
-                // Un-delete if deleted (the lastDeletedAt is preserved for message filtering)
-                if (participant.getIsDeleted()) {
-                    participant.setIsDeleted(false);
-                    updated = true;
-                }
-
-                // Un-archive as well
-                if (participant.getIsArchived()) {
-                    participant.setIsArchived(false);
-                    updated = true;
-                }
-
-                if (updated) {
-                    participantRepository.save(participant);
-                }
-            }
+    public MessageEntity sendMessage(MessageEntity message, @NonNull Long conversationId,
+            @NonNull UserEntity sender) {
+        Long senderId = sender.getUserId();
+        ConversationMeta meta = conversationMetadataCache.get(conversationId);
+        if (!meta.isParticipant(senderId)) {
+            throw new AccessDeniedException("User is not a participant of conversation " + conversationId);
         }
 
-        message.setConversation(conversation);
+        message.setConversation(conversationRepository.getReferenceById(conversationId));
         message.setSender(sender);
 
         MessageEntity savedMessage = messageRepository.save(message);
 
-        // --- REAL-TIME BROADCAST ---
+        // Inbox summary, then un-delete/un-archive + unread counters for every participant.
+        // The lastDeletedAt timestamp is preserved, so a user who cleared the chat
+        // only sees messages AFTER their deletion time.
+        conversationRepository.updateLastMessage(conversationId, savedMessage.getMessageId(),
+                savedMessage.getContent(), savedMessage.getSentAt(), senderId);
+        participantRepository.recordNewMessage(conversationId, senderId, savedMessage.getMessageId(),
+                savedMessage.getSentAt());
+
+        List<Long> recipientIds = new ArrayList<>();
+        for (Long participantId : meta.participantNames().keySet()) {
+            if (participantId.equals(senderId)) {
+                unreadCountService.markReadAfterCommit(participantId, conversationId);
+            } else {
+                recipientIds.add(participantId);
+                Boolean seller = meta.listingId() == null ? null : participantId.equals(meta.listingOwnerId());
+                Boolean sold = meta.listingId() == null ? null : meta.listingSold();
+                unreadCountService.markUnreadAfterCommit(participantId, conversationId, meta.listingId(), false,
+                        seller, sold);
+            }
+        }
+
+        // --- REAL-TIME BROADCAST (after commit, so clients never fetch an uncommitted message) ---
 
         // 1. Prepare a simple DTO map to avoid infinite recursion/lazy loading issues
         // in JSON
         Map<String, Object> socketResponse = new HashMap<>();
         socketResponse.put("id", savedMessage.getMessageId());
-        socketResponse.put("senderId", sender.getUserId());
+        socketResponse.put("senderId", senderId);
         socketResponse.put("text", savedMessage.getContent());
         socketResponse.put("timestamp", savedMessage.getSentAt().toString());
         socketResponse.put("conversationId", conversationId);
         socketResponse.put("attachmentUrl", savedMessage.getAttachmentUrl());
 
-        // 2. Broadcast to the specific conversation topic (for the open chat window)
-        // Clients subscribed to "/topic/conversation.{id}" will receive this
-        messagingTemplate.convertAndSend("/topic/conversation." + conversationId, socketResponse);
-
-        // 3. Broadcast a notification to the RECIPIENT (to update their sidebar/unread
-        // count)
-        // Find the other participant
-        conversation.getParticipants().stream()
-                .filter(p -> !p.getUser().getUserId().equals(senderId))
-                .forEach(p -> {
-                    Long recipientId = p.getUser().getUserId();
-
-                    String linkUrl = "/messages/" + conversationId;
-                    String productName = conversation.getListing() != null ? conversation.getListing().getTitle()
-                            : "Item";
-
-                    // Find the latest notification for this conversation (Read OR Unread) to avoid
-                    // duplicates
-                    NotificationEntity notification = notificationRepository
-                            .findFirstByTypeAndUser_UserIdAndLinkUrlOrderByCreatedAtDesc("NEW_MESSAGE", recipientId,
-                                    linkUrl)
-                            .orElse(new NotificationEntity());
-
-                    // If new (ID is null), set basic fields
-                    if (notification.getNotificationId() == null) {
-                        notification.setUser(p.getUser());
-                        notification.setType("NEW_MESSAGE");
-                        notification.setLinkUrl(linkUrl);
-                    }
-
-                    // Calculate Unread Count
-                    long unreadCount = messageRepository
-                            .countByConversation_ConversationIdAndSender_UserIdAndIsReadFalse(
-                                    conversationId, senderId);
-
-                    // Construct Content based on count
-                    String content;
-                    if (unreadCount > 1) {
-                        content = String.format("<strong>%s</strong> sent %d new messages about <strong>%s</strong>",
-                                sender.getFullName(), unreadCount, productName);
-                    } else {
-                        content = String.format("<strong>%s</strong> messaged you about <strong>%s</strong>",
-                                sender.getFullName(), productName);
-                    }
-
-                    notification.setContent(content);
-                    notification.setCreatedAt(LocalDateTime.now()); // Bump timestamp to top
-                    notification.setIsRead(false); // Mark as unread again (resurrect if it was read)
-
-                    NotificationEntity savedNotification = notificationRepository.save(notification);
-
-                    // Add notification fields to socket payload
-                    socketResponse.put("type", "NEW_MESSAGE");
-                    socketResponse.put("notificationId", savedNotification.getNotificationId());
-                    socketResponse.put("notificationContent", content);
-                    socketResponse.put("linkUrl", savedNotification.getLinkUrl());
-                    socketResponse.put("isRead", false);
-                    socketResponse.put("createdAt", savedNotification.getCreatedAt().toString());
-
-                    // Clients subscribed to "/topic/user.{id}" will receive this
-                    messagingTemplate.convertAndSend("/topic/user." + recipientId, socketResponse);
-                });
+        String productName = meta.listingTitle() != null ? meta.listingTitle() : "Item";
+        String senderName = sender.getFullName();
+        AfterCommit.run(() -> {
+            // 2. Broadcast to the specific conversation topic (for the open chat window)
+            topicPublisher.publish("/topic/conversation." + conversationId, socketResponse);
+
+            // 3. Notify the recipients (sidebar, header badge) on the async executor
+            messageNotificationService.notifyNewMessage(socketResponse, conversationId, senderName, productName,
+                    recipientIds);
+        });
 
         return savedMessage;
     }
 
-    // 3. Mark Conversation as Read
+    // 3. Mark Conversation as Read (message flags are written behind by ReadReceiptService)
     @Transactional
     public void markConversationAsRead(@NonNull Long conversationId, @NonNull Long currentUserId) {
-        messageRepository.markMessagesAsRead(conversationId, currentUserId);
+        Long upTo = conversationRepository.findLastMessageId(conversationId);
+        if (upTo == null || readReceiptService.isAlreadyRead(conversationId, currentUserId, upTo)) {
+            return; // Re-opening or re-focusing a chat with nothing new
+        }
+        if (participantRepository.markReadUpTo(conversationId, currentUserId, upTo) > 0) {
+            unreadCountService.markReadAfterCommit(currentUserId, conversationId);
+        }
+        readReceiptService.recordAfterCommit(conversationId, currentUserId, upTo);
     }
 
     // 4. Mark Conversation as Unread
     @Transactional
     public void markConversationAsUnread(@NonNull Long conversationId, @NonNull Long currentUserId) {
+        readReceiptService.forget(conversationId, currentUserId); // A pending flush must not re-read it
         messageRepository.markLastMessageAsUnread(conversationId, currentUserId);
+        if (participantRepository.markLastMessageUnread(conversationId, currentUserId) > 0) {
+            participantRepository.findById(new ConversationParticipantIdEntity(conversationId, currentUserId))
+                    .filter(p -> !p.getIsDeleted())
+                    .ifPresent(p -> unreadCountService.markUnreadAfterCommit(currentUserId, p.getConversation(),
+                            p.getIsArchived()));
+        }
     }
 }
@@ -0,0 +1,202 @@
+package com.edurent.crc.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.edurent.crc.entity.NotificationEntity;
+import com.edurent.crc.repository.NotificationRepository;
+import com.edurent.crc.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Central notification pipeline. Producers enqueue events once their own
+ * transaction has committed; every FLUSH_INTERVAL_MS the queued events are
+ * written in a single transaction and each saved row is pushed on
+ * /topic/user.{id}.
+ *
+ * UPSERT events coalesce per (user, type, link): a burst collapses into one
+ * write of the latest content, which re-surfaces the user's newest existing
+ * row for that link (or creates one). INSERT events always add a row.
+ */
+@Service
+@Lazy(false)
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long FLUSH_INTERVAL_MS = 250;
+
+    public enum Mode {
+        UPSERT, INSERT
+    }
+
+    /**
+     * One notification to write. pushPayload, when set, is sent instead of the
+     * saved row, extended with the notification fields (used by NEW_MESSAGE).
+     */
+    public record NotificationEvent(Long userId, String type, String linkUrl, String content, Mode mode,
+            LocalDateTime createdAt, Map<String, Object> pushPayload) {
+
+        public static NotificationEvent upsert(Long userId, String type, String linkUrl, String content) {
+            return new NotificationEvent(userId, type, linkUrl, content, Mode.UPSERT, LocalDateTime.now(), null);
+        }
+
+        public static NotificationEvent insert(Long userId, String type, String linkUrl, String content) {
+            return new NotificationEvent(userId, type, linkUrl, content, Mode.INSERT, LocalDateTime.now(), null);
+        }
+
+        public NotificationEvent withPushPayload(Map<String, Object> payload) {
+            return new NotificationEvent(userId, type, linkUrl, content, mode, createdAt, payload);
+        }
+    }
+
+    // INSERT events get a unique sequence so they never coalesce
+    private record EventKey(Long userId, String type, String linkUrl, long sequence) {
+    }
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TopicPublisher topicPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Events waiting for the next flush
+    private final Map<EventKey, NotificationEvent> pending = new ConcurrentHashMap<>();
+
+    // Queues the event once the caller's transaction has committed (immediately without one)
+    public void enqueueAfterCommit(NotificationEvent event) {
+        long seq = event.mode() == Mode.INSERT ? sequence.incrementAndGet() : 0;
+        EventKey key = new EventKey(event.userId(), event.type(), event.linkUrl(), seq);
+        AfterCommit.run(() -> pending.merge(key, event, (older, newer) -> newer));
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<NotificationEvent> batch = new ArrayList<>();
+        for (EventKey key : pending.keySet()) {
+            NotificationEvent event = pending.remove(key);
+            if (event != null) {
+                batch.add(event);
+            }
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<NotificationEntity> saved;
+        try {
+            saved = transaction.execute(status -> write(batch));
+        } catch (Exception e) {
+            // One bad event (e.g. its user was deleted) must not drop the rest: retry one by one
+            log.warn("Notification flush of {} events failed, retrying individually: {}", batch.size(),
+                    e.getMessage());
+            for (NotificationEvent event : batch) {
+                try {
+                    push(event, transaction.execute(status -> write(List.of(event))).get(0));
+                } catch (Exception single) {
+                    log.warn("Dropped {} notification for user {}: {}", event.type(), event.userId(),
+                            single.getMessage());
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            push(batch.get(i), saved.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Saves one row per event, in order; UPSERT events reuse the newest existing row of their key
+    private List<NotificationEntity> write(List<NotificationEvent> events) {
+        Map<EventKey, NotificationEntity> latest = findLatest(events);
+
+        List<NotificationEntity> rows = new ArrayList<>(events.size());
+        for (NotificationEvent event : events) {
+            NotificationEntity notification = event.mode() == Mode.UPSERT
+                    ? latest.get(new EventKey(event.userId(), event.type(), event.linkUrl(), 0))
+                    : null;
+            if (notification == null) {
+                notification = new NotificationEntity();
+                notification.setUser(userRepository.getReferenceById(event.userId()));
+                notification.setType(event.type());
+                notification.setLinkUrl(event.linkUrl());
+            }
+            notification.setContent(event.content());
+            notification.setCreatedAt(event.createdAt()); // Bump to top
+            notification.setIsRead(false); // Re-surface if it was read
+            rows.add(notification);
+        }
+        return notificationRepository.saveAll(rows);
+    }
+
+    // Newest existing row per UPSERT key, from one query
+    private Map<EventKey, NotificationEntity> findLatest(List<NotificationEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        Set<String> types = new HashSet<>();
+        Set<String> linkUrls = new HashSet<>();
+        for (NotificationEvent event : events) {
+            if (event.mode() == Mode.UPSERT && event.linkUrl() != null) {
+                userIds.add(event.userId());
+                types.add(event.type());
+                linkUrls.add(event.linkUrl());
+            }
+        }
+        Map<EventKey, NotificationEntity> latest = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return latest;
+        }
+        // Ordered oldest first, so later rows overwrite earlier ones
+        for (NotificationEntity row : notificationRepository.findByUserIdsAndTypesAndLinkUrls(userIds, types,
+                linkUrls)) {
+            latest.put(new EventKey(row.getUser().getUserId(), row.getType(), row.getLinkUrl(), 0), row);
+        }
+        return latest;
+    }
+
+    private void push(NotificationEvent event, NotificationEntity saved) {
+        Object payload = saved;
+        if (event.pushPayload() != null) {
+            Map<String, Object> socketResponse = new HashMap<>(event.pushPayload());
+            socketResponse.put("type", saved.getType());
+            socketResponse.put("notificationId", saved.getNotificationId());
+            socketResponse.put("notificationContent", saved.getContent());
+            socketResponse.put("linkUrl", saved.getLinkUrl());
+            socketResponse.put("isRead", false);
+            socketResponse.put("createdAt", saved.getCreatedAt().toString());
+            payload = socketResponse;
+        }
+        topicPublisher.publish("/topic/user." + event.userId(), payload);
+    }
+}
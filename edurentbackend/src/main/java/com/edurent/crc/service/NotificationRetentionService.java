@@ -0,0 +1,63 @@
+package com.edurent.crc.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Nightly retention for the notifications table: read notifications older
+ * than app.notifications.retention-days are deleted in batches of
+ * app.notifications.retention-batch-size rows, each its own short statement,
+ * so the job never holds long locks. Unread notifications are always kept.
+ */
+@Service
+@Lazy(false)
+public class NotificationRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    // Uses the partial index idx_notification_read_created
+    private static final String DELETE_BATCH_SQL = "DELETE FROM notifications WHERE notification_id IN ("
+            + "SELECT notification_id FROM notifications WHERE is_read = true AND created_at < ? LIMIT ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notifications.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.notifications.retention-batch-size:1000}")
+    private int batchSize;
+
+    // Run daily at 3 AM.
+    @Scheduled(cron = "${app.notifications.retention-cron:0 0 3 * * *}")
+    public void purgeReadNotifications() {
+        if (retentionDays <= 0) {
+            return; // Retention disabled
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+
+        long start = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        try {
+            do {
+                deleted = jdbcTemplate.update(DELETE_BATCH_SQL, cutoff, batchSize);
+                total += deleted;
+            } while (deleted == batchSize);
+        } catch (Exception e) {
+            log.warn("Notification retention stopped after {} rows: {}", total, e.getMessage());
+            return;
+        }
+        log.info("Notification retention removed {} read notifications older than {} days in {} ms",
+                total, retentionDays, System.currentTimeMillis() - start);
+    }
+}
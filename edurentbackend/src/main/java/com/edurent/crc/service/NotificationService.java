@@ -3,13 +3,15 @@ package com.edurent.crc.service;
 import org.springframework.lang.NonNull;
 import java.util.Objects;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.edurent.crc.dto.CursorPageDTO;
 import com.edurent.crc.entity.NotificationEntity;
 import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.NotificationRepository;
@@ -18,20 +20,37 @@ import com.edurent.crc.repository.UserRepository;
 @Service
 public class NotificationService {
 
+    private static final int MAX_PAGE_SIZE = 50;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    // Get Notifications for User
-    public List<NotificationEntity> getNotificationsForUser(@NonNull Long userId) {
-        return notificationRepository.findByUserId(userId);
+    // Get Notifications for User (keyset: newest first, after the opaque 'cursor' of the previous window).
+    // The cursor carries (createdAt, notificationId) itself, so it stays valid when that row is
+    // re-surfaced by an UPSERT or removed by retention. Throws IllegalArgumentException if malformed.
+    public CursorPageDTO<NotificationEntity> getNotificationsForUser(@NonNull Long userId, boolean unreadOnly,
+            String cursor, int size) {
+        Pageable limit = PageRequest.ofSize(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Slice<NotificationEntity> slice = position.equals(KeysetCursor.START)
+                ? notificationRepository.findLatestByUserId(userId, unreadOnly, limit)
+                : notificationRepository.findOlderByUserId(userId, unreadOnly, position.timestamp(),
+                        position.id(), limit);
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            NotificationEntity last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getNotificationId());
+        }
+        return new CursorPageDTO<>(slice.getContent(), nextCursor, limit.getPageSize());
     }
 
-    // Get Unread Notifications for User
-    public List<NotificationEntity> getUnreadNotificationsForUser(@NonNull Long userId) {
-        return notificationRepository.findByUserIdAndIsRead(userId, false);
+    // Unread Count for the header badge
+    public long getUnreadCount(@NonNull Long userId) {
+        return notificationRepository.countByUser_UserIdAndIsReadFalse(userId);
     }
 
     // Create Notification
@@ -7,6 +7,8 @@ import com.edurent.crc.entity.PasswordResetTokenEntity;
 import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.PasswordResetTokenRepository;
 import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.security.TokenRevocationService;
+import com.edurent.crc.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,6 +33,12 @@ public class PasswordResetService {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -108,9 +116,12 @@ public class PasswordResetService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "User not found"));
 
-        // Update password (hash it)
+        // Update password (hash it) and revoke every token issued before
         user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userPrincipalCache.evictAfterCommit(user.getUserId());
+        tokenRevocationService.revokeBeforeAfterCommit(user.getUserId(), user.getTokenVersion());
 
         // Mark token as used
         resetToken.setUsed(true);
@@ -0,0 +1,127 @@
+package com.edurent.crc.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * ClusterBus on PostgreSQL LISTEN/NOTIFY, so instances need nothing beyond
+ * the database they already share (app.websocket.cluster-bus.mode=postgres).
+ *
+ * NOTIFY goes through the normal pool. LISTEN needs a long-lived session, which
+ * the Supabase transaction pooler (port 6543) does not keep, so the listener
+ * opens its own connection to app.websocket.cluster-bus.url (session pooler on
+ * port 5432 or a direct connection). NOTIFY payloads are capped at 8000 bytes;
+ * larger messages are not forwarded.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.cluster-bus.mode", havingValue = "postgres")
+public class PostgresClusterBus implements ClusterBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresClusterBus.class);
+
+    private static final String CHANNEL = "edurent_topics";
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.websocket.cluster-bus.url:${spring.datasource.url}}")
+    private String listenUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void publish(String message) {
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            log.warn("Cluster message of {} chars exceeds the NOTIFY limit, not forwarded", message.length());
+            return;
+        }
+        // Inside a transaction the notification is delivered on commit
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+            ps.setString(1, CHANNEL);
+            ps.setString(2, message);
+            return ps.execute();
+        });
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+        if (listenerThread == null) {
+            running = true;
+            listenerThread = Thread.ofPlatform().daemon().name("cluster-bus-listener").start(this::listen);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    // Keeps one LISTEN session open, reconnecting after failures
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(listenUrl, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cluster messages on channel {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        for (Consumer<String> listener : listeners) {
+                            listener.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster bus listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
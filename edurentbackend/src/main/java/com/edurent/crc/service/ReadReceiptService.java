@@ -0,0 +1,146 @@
+package com.edurent.crc.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind read receipts. Marking a chat as read only records the
+ * reader's high-water mark (the last message id they have seen); repeated
+ * marks for the same or a lower id are coalesced in memory. Every
+ * FLUSH_INTERVAL_MS the pending marks are written as one JDBC batch that
+ * flips only still-unread messages up to the mark, and each sender is told
+ * on /topic/conversation.{id} with a READ_RECEIPT payload.
+ * Unread counters are not delayed: MessageService updates them immediately.
+ * Marks are held per instance; forget() is repeated on the other instances
+ * through ClusterEvents so none of them flushes a mark the user took back.
+ */
+@Service
+@Lazy(false)
+public class ReadReceiptService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReceiptService.class);
+
+    private static final long FLUSH_INTERVAL_MS = 2000;
+
+    // Cluster event: a ParticipantKey forgotten on another instance
+    private static final String FORGET_EVENT = "read-receipt.forget";
+
+    private static final String MARK_READ_SQL = "UPDATE messages SET is_read = true "
+            + "WHERE conversation_id = ? AND sender_id <> ? AND message_id <= ? AND is_read IS NOT TRUE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TopicPublisher topicPublisher;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    record ParticipantKey(Long conversationId, Long userId) {
+    }
+
+    // Highest message id each reader is known to have read (recently active readers only)
+    private final Cache<ParticipantKey, Long> readUpTo = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    // Marks waiting for the next flush
+    private final Map<ParticipantKey, Long> pending = new ConcurrentHashMap<>();
+
+    // Keeps forget() from interleaving with a batch that is being written
+    private final Object flushLock = new Object();
+
+    @PostConstruct
+    public void subscribeToCluster() {
+        clusterEvents.on(FORGET_EVENT, ParticipantKey.class, this::forgetLocally);
+    }
+
+    public boolean isAlreadyRead(Long conversationId, Long userId, Long messageId) {
+        Long known = readUpTo.getIfPresent(new ParticipantKey(conversationId, userId));
+        return known != null && known >= messageId;
+    }
+
+    // Queues the mark once the caller's transaction has committed
+    public void recordAfterCommit(Long conversationId, Long userId, Long messageId) {
+        ParticipantKey key = new ParticipantKey(conversationId, userId);
+        AfterCommit.run(() -> {
+            readUpTo.asMap().merge(key, messageId, Math::max);
+            pending.merge(key, messageId, Math::max);
+        });
+    }
+
+    // Drops pending and known marks (the user marked the chat unread again)
+    public void forget(Long conversationId, Long userId) {
+        ParticipantKey key = new ParticipantKey(conversationId, userId);
+        forgetLocally(key);
+        clusterEvents.publish(FORGET_EVENT, key);
+    }
+
+    private void forgetLocally(ParticipantKey key) {
+        synchronized (flushLock) {
+            pending.remove(key);
+            readUpTo.invalidate(key);
+        }
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        synchronized (flushLock) {
+            for (ParticipantKey key : pending.keySet()) {
+                Long messageId = pending.remove(key);
+                if (messageId != null) {
+                    batch.add(new Object[] { key.conversationId(), key.userId(), messageId });
+                }
+            }
+            try {
+                jdbcTemplate.batchUpdate(MARK_READ_SQL, batch);
+            } catch (Exception e) {
+                // Put the marks back; the next flush retries them
+                for (Object[] row : batch) {
+                    pending.merge(new ParticipantKey((Long) row[0], (Long) row[1]), (Long) row[2], Math::max);
+                }
+                log.warn("Read receipt flush of {} marks failed: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+
+        for (Object[] row : batch) {
+            Map<String, Object> receipt = new HashMap<>();
+            receipt.put("type", "READ_RECEIPT");
+            receipt.put("conversationId", row[0]);
+            receipt.put("readerId", row[1]);
+            receipt.put("upToMessageId", row[2]);
+            topicPublisher.publish("/topic/conversation." + row[0], receipt);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -9,13 +9,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
 import com.edurent.crc.entity.TransactionEntity;
-import com.edurent.crc.entity.NotificationEntity;
 import com.edurent.crc.repository.ListingRepository;
 import com.edurent.crc.repository.TransactionRepository;
-import com.edurent.crc.repository.NotificationRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import java.time.LocalDateTime;
+import com.edurent.crc.service.NotificationDispatcher.NotificationEvent;
 
 import java.util.Calendar;
 
@@ -27,9 +25,17 @@ public class RentalSchedulerService {
     @Autowired
     private ListingRepository listingRepository;
     @Autowired
-    private NotificationRepository notificationRepository;
+    private NotificationDispatcher notificationDispatcher;
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ListingPageCache listingPageCache;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private ConversationMetadataCache conversationMetadataCache;
+    @Autowired
+    private ListingSearchService listingSearchService;
 
     // Run every hour.
     @Scheduled(cron = "0 0 * * * *")
@@ -57,11 +63,6 @@ public class RentalSchedulerService {
             try {
                 // Prevent duplicate reminders if needed (optional logic could go here)
 
-                NotificationEntity notification = new NotificationEntity();
-                notification.setUser(t.getBuyer()); // Notify Renter
-                notification.setType("RENTAL_REMINDER");
-                notification.setLinkUrl("/listing/" + t.getListing().getListingId());
-
                 String formattedStart = t.getStartDate().toString().split(" ")[0]; // Simple formatting
                 String formattedEnd = t.getEndDate().toString().split(" ")[0];
 
@@ -69,13 +70,9 @@ public class RentalSchedulerService {
                         "Reminder: Your rental period is from <strong>%s</strong> to <strong>%s</strong>. Kindly return the rented item to the seller upon completion. Thank you.",
                         formattedStart, formattedEnd);
 
-                notification.setContent(content);
-                notification.setCreatedAt(LocalDateTime.now());
-                notification.setIsRead(false);
-
-                NotificationEntity saved = notificationRepository.save(notification);
-                messagingTemplate.convertAndSend("/topic/user." + t.getBuyer().getUserId(), saved);
-
+                // Notify Renter
+                notificationDispatcher.enqueueAfterCommit(NotificationEvent.insert(t.getBuyer().getUserId(),
+                        "RENTAL_REMINDER", "/listing/" + t.getListing().getListingId(), content));
             } catch (Exception e) {
                 System.err.println("Failed to send reminder for txn " + t.getTransactionId() + ": " + e.getMessage());
             }
@@ -96,8 +93,13 @@ public class RentalSchedulerService {
 
             // 1. Revert listing status to Available
             if (listing != null) {
-                listing.setStatus("Available");
+                ListingStatus previousStatus = listing.getStatus();
+                listing.setStatus(ListingStatus.AVAILABLE);
                 listingRepository.save(listing);
+                listingPageCache.evictStatusChangeAfterCommit(listing, previousStatus);
+                unreadCountService.listingStatusChangedAfterCommit(listing.getListingId(), listing.getStatus());
+                conversationMetadataCache.evictListingAfterCommit(listing.getListingId());
+                listingSearchService.updateStatusAfterCommit(listing.getListingId(), ListingStatus.AVAILABLE);
                 System.out.println("   -> Item '" + listing.getTitle() + "' is now Available.");
             }
 
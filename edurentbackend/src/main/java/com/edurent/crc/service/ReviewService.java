@@ -1,7 +1,6 @@
 package com.edurent.crc.service;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,17 +11,15 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
-import com.edurent.crc.entity.NotificationEntity;
 import com.edurent.crc.entity.ReviewEntity;
 import com.edurent.crc.entity.ReviewImageEntity;
 import com.edurent.crc.entity.TransactionEntity;
 import com.edurent.crc.entity.UserEntity;
-import com.edurent.crc.repository.NotificationRepository;
 import com.edurent.crc.repository.ReviewRepository;
 import com.edurent.crc.repository.TransactionRepository;
 import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.service.NotificationDispatcher.NotificationEvent;
 
 @Service
 public class ReviewService {
@@ -37,10 +34,7 @@ public class ReviewService {
     private UserRepository userRepository;
 
     @Autowired
-    private NotificationRepository notificationRepository;
-
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationDispatcher notificationDispatcher;
 
     @Autowired
     private CloudinaryService cloudinaryService;
@@ -185,25 +179,9 @@ public class ReviewService {
                         reviewer.getFullName(), listingTitle);
             }
 
-            // Stock-Up Logic: Check for existing notification for this specific link
-            NotificationEntity notification = notificationRepository
-                    .findFirstByTypeAndUser_UserIdAndLinkUrlOrderByCreatedAtDesc("NEW_REVIEW", recipient.getUserId(),
-                            linkUrl)
-                    .orElse(new NotificationEntity());
-
-            if (notification.getNotificationId() == null) {
-                notification.setUser(recipient);
-                notification.setType("NEW_REVIEW");
-                notification.setLinkUrl(linkUrl);
-            }
-
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now()); // Bump to top
-            notification.setIsRead(false); // Mark as unread
-
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + recipient.getUserId(), savedNotif);
-
+            // Stock-Up Logic: re-surfaces the latest notification for this specific link
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.upsert(recipient.getUserId(), "NEW_REVIEW", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send review notification: " + e.getMessage());
         }
@@ -244,18 +222,11 @@ public class ReviewService {
             // Link to the profile (reviews tab) generally, as the specific review is gone
             String linkUrl = String.format("/profile/%d?tab=reviews", recipient.getUserId());
 
-            NotificationEntity notification = new NotificationEntity();
-            notification.setUser(recipient);
-            notification.setType("REVIEW_DELETED");
-            notification.setLinkUrl(linkUrl);
-
             String content = String.format("<strong>%s</strong> deleted a review about <strong>%s</strong>",
                     reviewer.getFullName(), listingTitle);
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now());
 
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + recipient.getUserId(), savedNotif);
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.insert(recipient.getUserId(), "REVIEW_DELETED", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send delete review notification: " + e.getMessage());
         }
@@ -0,0 +1,121 @@
+package com.edurent.crc.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A cached response body kept in three forms: the value itself, its JSON
+ * bytes and (for bodies worth compressing) the gzipped JSON bytes, plus a
+ * strong ETag per encoding. Built once when the page is loaded, so a cache
+ * hit skips both Jackson and response compression.
+ */
+public final class SerializedPage<T> {
+
+    // Same threshold as server.compression.min-response-size
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    private final T value;
+    private final byte[] json;
+    private final byte[] gzipped;
+    private final String etag;
+
+    private SerializedPage(T value, byte[] json, byte[] gzipped, String etag) {
+        this.value = value;
+        this.json = json;
+        this.gzipped = gzipped;
+        this.etag = etag;
+    }
+
+    public static <T> SerializedPage<T> of(T value, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzipped = json.length >= MIN_GZIP_SIZE ? gzip(json) : null;
+            return new SerializedPage<>(value, json, gzipped, DigestUtils.md5DigestAsHex(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cached page", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    // Null when the body is below the compression threshold
+    public byte[] getGzipped() {
+        return gzipped;
+    }
+
+    // Strong ETags differ per content encoding (RFC 9110 8.8.3)
+    public String getEtag(boolean gzipped) {
+        return gzipped ? "\"" + etag + "-gz\"" : "\"" + etag + "\"";
+    }
+
+    // True when Accept-Encoding allows gzip with a non-zero q-value, named or via "*"
+    // ("gzip;q=0" refuses it; RFC 9110 12.5.3)
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double wildcard = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : wildcard > 0;
+    }
+
+    // True when If-None-Match names either representation of this body
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(getEtag(false)) || tag.equals(getEtag(true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
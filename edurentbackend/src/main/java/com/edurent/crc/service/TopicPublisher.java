@@ -0,0 +1,96 @@
+package com.edurent.crc.service;
+
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Single entry point for server-initiated /topic messages
+ * (/topic/conversation.{id}, /topic/user.{id}).
+ *
+ * With the broker relay (app.websocket.broker=relay) the external broker
+ * already fans out to every instance, so messages are only handed to it.
+ * With the in-memory broker, messages are delivered locally and, when a
+ * ClusterBus is configured, forwarded to the other instances, which deliver
+ * them to their own subscribers.
+ */
+@Service
+@Lazy(false) // Must subscribe to the cluster bus at startup, not on first publish
+public class TopicPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicPublisher.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private ClusterBus clusterBus;
+
+    @Value("${app.websocket.broker:simple}")
+    private String brokerMode;
+
+    // Lets an instance skip its own messages when they come back from the bus
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void subscribe() {
+        if (clusterEnabled()) {
+            clusterBus.subscribe(this::onClusterMessage);
+            log.info("Forwarding /topic messages through {} (node {})",
+                    clusterBus.getClass().getSimpleName(), nodeId);
+        }
+    }
+
+    public void publish(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+
+        if (clusterEnabled()) {
+            try {
+                Envelope envelope = new Envelope(nodeId, destination, objectMapper.valueToTree(payload));
+                clusterBus.publish(objectMapper.writeValueAsString(envelope));
+            } catch (Exception e) {
+                // Local subscribers already have it; remote ones catch up on their next fetch
+                log.warn("Failed to forward {} to other instances: {}", destination, e.getMessage());
+            }
+        }
+    }
+
+    private void onClusterMessage(String message) {
+        try {
+            Envelope envelope = objectMapper.readValue(message, Envelope.class);
+            if (envelope.destination() == null) {
+                return; // A cache invalidation event, handled by ClusterEvents
+            }
+            if (nodeId.equals(envelope.nodeId())) {
+                return;
+            }
+            messagingTemplate.convertAndSend(envelope.destination(), envelope.payload());
+        } catch (Exception e) {
+            log.warn("Dropped malformed cluster message: {}", e.getMessage());
+        }
+    }
+
+    private boolean clusterEnabled() {
+        return clusterBus != null && !"relay".equalsIgnoreCase(brokerMode);
+    }
+
+    // Wire format on the cluster bus
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Envelope(String nodeId, String destination, JsonNode payload) {
+    }
+}
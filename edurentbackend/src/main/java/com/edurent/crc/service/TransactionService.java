@@ -5,21 +5,19 @@ import org.springframework.lang.NonNull;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import com.edurent.crc.entity.ListingEntity;
-import com.edurent.crc.entity.NotificationEntity;
+import com.edurent.crc.entity.ListingStatus;
 import com.edurent.crc.entity.TransactionEntity;
 import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.ListingRepository;
-import com.edurent.crc.repository.NotificationRepository;
 import com.edurent.crc.repository.TransactionRepository;
 import com.edurent.crc.repository.UserRepository;
+import com.edurent.crc.service.NotificationDispatcher.NotificationEvent;
 
 @Service
 public class TransactionService {
@@ -34,10 +32,19 @@ public class TransactionService {
     private UserRepository userRepository;
 
     @Autowired
-    private NotificationRepository notificationRepository;
+    private NotificationDispatcher notificationDispatcher;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ListingPageCache listingPageCache;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private ConversationMetadataCache conversationMetadataCache;
+
+    @Autowired
+    private ListingSearchService listingSearchService;
 
     public List<TransactionEntity> getAllTransactions() {
         return transactionRepository.findAll();
@@ -66,8 +73,13 @@ public class TransactionService {
             throw new IllegalStateException("Buyer and Seller cannot be the same person.");
         }
 
-        listing.setStatus(transaction.getTransactionType().equals("Sale") ? "Sold" : "Rented");
+        ListingStatus previousStatus = listing.getStatus();
+        listing.setStatus(transaction.getTransactionType().equals("Sale") ? ListingStatus.SOLD : ListingStatus.RENTED);
         listingRepository.save(listing);
+        listingPageCache.evictStatusChangeAfterCommit(listing, previousStatus);
+        unreadCountService.listingStatusChangedAfterCommit(listing.getListingId(), listing.getStatus());
+        conversationMetadataCache.evictListingAfterCommit(listing.getListingId());
+        listingSearchService.updateStatusAfterCommit(listingId, listing.getStatus());
 
         transaction.setListing(listing);
         transaction.setBuyer(buyer);
@@ -92,20 +104,13 @@ public class TransactionService {
     private void sendRentNotificationToRenter(TransactionEntity transaction, ListingEntity listing, UserEntity buyer,
             UserEntity seller) {
         try {
-            NotificationEntity notification = new NotificationEntity();
-            notification.setUser(buyer);
-            notification.setType("RENTAL_STARTED_RENTER");
-            notification.setLinkUrl("/listing/" + listing.getListingId()); // Opens Product Modal
-
+            String linkUrl = "/listing/" + listing.getListingId(); // Opens Product Modal
             String content = String.format(
                     "<strong>%s</strong> rented this item to you. Don't forget to leave a review!",
                     seller.getFullName());
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now());
-            notification.setIsRead(false);
 
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + buyer.getUserId(), savedNotif);
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.insert(buyer.getUserId(), "RENTAL_STARTED_RENTER", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send renter notification: " + e.getMessage());
         }
@@ -114,21 +119,14 @@ public class TransactionService {
     private void sendRentNotificationToOwner(TransactionEntity transaction, ListingEntity listing, UserEntity buyer,
             UserEntity seller) {
         try {
-            NotificationEntity notification = new NotificationEntity();
-            notification.setUser(seller);
-            notification.setType("RENTAL_STARTED_OWNER");
             // Includes ?review=true to trigger the Review Modal flow we built earlier
-            notification.setLinkUrl("/listing/" + listing.getListingId() + "?review=true");
-
+            String linkUrl = "/listing/" + listing.getListingId() + "?review=true";
             String content = String.format(
                     "You recently rented this item to <strong>%s</strong>. Don't forget to leave a review!",
                     buyer.getFullName());
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now());
-            notification.setIsRead(false);
 
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + seller.getUserId(), savedNotif);
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.insert(seller.getUserId(), "RENTAL_STARTED_OWNER", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send owner rental notification: " + e.getMessage());
         }
@@ -137,21 +135,14 @@ public class TransactionService {
     private void sendSellerNotification(TransactionEntity transaction, ListingEntity listing, UserEntity buyer,
             UserEntity seller) {
         try {
-            NotificationEntity notification = new NotificationEntity();
-            notification.setUser(seller); // Notify the Seller
-            notification.setType("TRANSACTION_COMPLETED_SELLER");
             // Append query param to trigger review mode
-            notification.setLinkUrl("/listing/" + listing.getListingId() + "?review=true");
-
+            String linkUrl = "/listing/" + listing.getListingId() + "?review=true";
             String content = String.format(
                     "You recently sold <strong>%s</strong> to <strong>%s</strong>. Don't forget to leave a review!",
                     listing.getTitle(), buyer.getFullName());
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now());
-            notification.setIsRead(false);
 
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + seller.getUserId(), savedNotif);
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.insert(seller.getUserId(), "TRANSACTION_COMPLETED_SELLER", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send seller transaction notification: " + e.getMessage());
         }
@@ -160,20 +151,13 @@ public class TransactionService {
     private void sendSaleNotification(TransactionEntity transaction, ListingEntity listing, UserEntity buyer,
             UserEntity seller) {
         try {
-            NotificationEntity notification = new NotificationEntity();
-            notification.setUser(buyer); // Notify the Buyer
-            notification.setType("TRANSACTION_COMPLETED");
-            notification.setLinkUrl("/listing/" + listing.getListingId()); // Link triggers the Modal
-
+            String linkUrl = "/listing/" + listing.getListingId(); // Link triggers the Modal
             String content = String.format(
                     "<strong>%s</strong> sold <strong>%s</strong> to you. Don't forget to leave a review!",
                     seller.getFullName(), listing.getTitle());
-            notification.setContent(content);
-            notification.setCreatedAt(LocalDateTime.now());
-            notification.setIsRead(false);
 
-            NotificationEntity savedNotif = notificationRepository.save(notification);
-            messagingTemplate.convertAndSend("/topic/user." + buyer.getUserId(), savedNotif);
+            notificationDispatcher.enqueueAfterCommit(
+                    NotificationEvent.insert(buyer.getUserId(), "TRANSACTION_COMPLETED", linkUrl, content));
         } catch (Exception e) {
             System.err.println("Failed to send transaction notification: " + e.getMessage());
         }
@@ -199,8 +183,13 @@ public class TransactionService {
         ListingEntity listing = transaction.getListing();
 
         // 1. Revert listing status to Available
-        listing.setStatus("Available");
+        ListingStatus previousStatus = listing.getStatus();
+        listing.setStatus(ListingStatus.AVAILABLE);
         listingRepository.save(listing);
+        listingPageCache.evictStatusChangeAfterCommit(listing, previousStatus);
+        unreadCountService.listingStatusChangedAfterCommit(listing.getListingId(), listing.getStatus());
+        conversationMetadataCache.evictListingAfterCommit(listing.getListingId());
+        listingSearchService.updateStatusAfterCommit(listing.getListingId(), ListingStatus.AVAILABLE);
 
         // 2. Mark transaction as Completed
         transaction.setStatus("Completed");
@@ -0,0 +1,269 @@
+package com.edurent.crc.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.edurent.crc.entity.ConversationEntity;
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.repository.ConversationParticipantRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-user unread counters for the inbox tabs, kept in memory and updated
+ * incrementally as messages are sent, read, archived or deleted. A user's
+ * state is loaded from the unread participant rows on first access, then
+ * every change is applied after commit and the new counts are pushed on
+ * /topic/user.{id} as {"type": "UNREAD_COUNTS", "counts": {...}}.
+ * Updates are idempotent (set membership), so an event that races with the
+ * initial load cannot be counted twice. Other instances hear about each change
+ * through ClusterEvents and reload the user's state if they hold it.
+ */
+@Service
+public class UnreadCountService {
+
+    public static final String PUSH_TYPE = "UNREAD_COUNTS";
+
+    // Tab order inside UnreadState.counts
+    private static final String[] TABS = { "All Messages", "Selling", "Buying", "Purchased", "Sold", "Archived" };
+    private static final int ALL = 0, SELLING = 1, BUYING = 2, PURCHASED = 3, SOLD = 4, ARCHIVED = 5;
+
+    // Cluster events: user id whose state changed / ListingSold on another instance
+    private static final String USER_EVENT = "unread.user";
+    private static final String LISTING_EVENT = "unread.listing";
+
+    @Autowired
+    private ConversationParticipantRepository participantRepository;
+
+    @Autowired
+    private TopicPublisher topicPublisher;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    // Only recently active users are kept; others reload from the database
+    private final Cache<Long, UnreadState> states = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    @PostConstruct
+    public void subscribeToCluster() {
+        clusterEvents.on(USER_EVENT, Long.class, this::reload);
+        clusterEvents.on(LISTING_EVENT, ListingSold.class, e -> setSold(e.listingId(), e.sold()));
+    }
+
+    // --- Reads ---
+
+    public Map<String, Integer> getCounts(Long userId) {
+        UnreadState state = states.get(userId, this::load);
+        synchronized (state) {
+            return state.toMap();
+        }
+    }
+
+    private UnreadState load(Long userId) {
+        UnreadState state = new UnreadState();
+        List<Object[]> rows = participantRepository.findUnreadConversations(userId,
+                ListingStatus.SOLD_OR_RENTED.from().getCode(), ListingStatus.SOLD_OR_RENTED.to().getCode());
+        for (Object[] row : rows) {
+            Long listingId = row[1] == null ? null : ((Number) row[1]).longValue();
+            state.put(((Number) row[0]).longValue(),
+                    new UnreadEntry(listingId, Boolean.TRUE.equals(row[2]), (Boolean) row[3], (Boolean) row[4]));
+        }
+        return state;
+    }
+
+    // --- Events (applied after the surrounding transaction commits) ---
+
+    // The conversation now has unread messages for this user
+    public void markUnreadAfterCommit(Long userId, ConversationEntity conversation, boolean archived) {
+        ListingEntity listing = conversation.getListing();
+        if (listing == null) {
+            markUnreadAfterCommit(userId, conversation.getConversationId(), null, archived, null, null);
+        } else {
+            markUnreadAfterCommit(userId, conversation.getConversationId(), listing.getListingId(), archived,
+                    listing.getUser().getUserId().equals(userId), listing.getStatus().isSoldOrRented());
+        }
+    }
+
+    // Same, from already known tab flags (seller/sold are null when there is no listing)
+    public void markUnreadAfterCommit(Long userId, Long conversationId, Long listingId, boolean archived,
+            Boolean seller, Boolean sold) {
+        UnreadEntry entry = new UnreadEntry(listingId, archived, seller, sold);
+        AfterCommit.run(() -> {
+            apply(userId, state -> state.put(conversationId, entry));
+            clusterEvents.publish(USER_EVENT, userId);
+        });
+    }
+
+    // Read, deleted, or the user just replied
+    public void markReadAfterCommit(Long userId, Long conversationId) {
+        AfterCommit.run(() -> {
+            apply(userId, state -> state.remove(conversationId));
+            clusterEvents.publish(USER_EVENT, userId);
+        });
+    }
+
+    public void setArchivedAfterCommit(Long userId, Long conversationId, boolean archived) {
+        AfterCommit.run(() -> {
+            apply(userId, state -> state.setArchived(conversationId, archived));
+            clusterEvents.publish(USER_EVENT, userId);
+        });
+    }
+
+    // Moves unread conversations of the listing between the active and Sold/Purchased tabs
+    public void listingStatusChangedAfterCommit(Long listingId, ListingStatus status) {
+        boolean sold = status.isSoldOrRented();
+        AfterCommit.run(() -> {
+            setSold(listingId, sold);
+            clusterEvents.publish(LISTING_EVENT, new ListingSold(listingId, sold));
+        });
+    }
+
+    // Drops the user's state (e.g. a deleted chat was restored); next read reloads it
+    public void invalidateAfterCommit(Long userId) {
+        AfterCommit.run(() -> {
+            states.invalidate(userId);
+            clusterEvents.publish(USER_EVENT, userId);
+        });
+    }
+
+    private void setSold(Long listingId, boolean sold) {
+        for (Long userId : states.asMap().keySet()) {
+            apply(userId, state -> state.setSold(listingId, sold));
+        }
+    }
+
+    // Another instance changed the user's state: reload ours if held, pushing when the counts moved
+    private void reload(Long userId) {
+        UnreadState previous = states.asMap().remove(userId);
+        if (previous == null) {
+            return;
+        }
+        Map<String, Integer> before;
+        synchronized (previous) {
+            before = previous.toMap();
+        }
+        Map<String, Integer> after = getCounts(userId);
+        if (!after.equals(before)) {
+            push(userId, after);
+        }
+    }
+
+    // Applies the change if the user's state is cached (waiting for an in-flight load) and pushes on change
+    private void apply(Long userId, Predicate<UnreadState> change) {
+        AtomicReference<Map<String, Integer>> pushed = new AtomicReference<>();
+        states.asMap().computeIfPresent(userId, (id, state) -> {
+            synchronized (state) {
+                if (change.test(state)) {
+                    pushed.set(state.toMap());
+                }
+            }
+            return state;
+        });
+        if (pushed.get() != null) {
+            push(userId, pushed.get());
+        }
+    }
+
+    private void push(Long userId, Map<String, Integer> counts) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", PUSH_TYPE);
+        payload.put("counts", counts);
+        topicPublisher.publish("/topic/user." + userId, payload);
+    }
+
+    record ListingSold(Long listingId, boolean sold) {
+    }
+
+    // Tab flags of one unread conversation; seller/sold are null when it has no listing
+    private record UnreadEntry(Long listingId, boolean archived, Boolean seller, Boolean sold) {
+
+        UnreadEntry withArchived(boolean value) {
+            return new UnreadEntry(listingId, value, seller, sold);
+        }
+
+        UnreadEntry withSold(boolean value) {
+            return new UnreadEntry(listingId, archived, seller, value);
+        }
+    }
+
+    // Unread conversations of one user plus the running tab counters; guarded by its own monitor
+    private static final class UnreadState {
+
+        private final Map<Long, UnreadEntry> unread = new HashMap<>();
+        private final int[] counts = new int[TABS.length];
+
+        // Each method returns true when the counters changed
+        boolean put(Long conversationId, UnreadEntry entry) {
+            UnreadEntry previous = unread.put(conversationId, entry);
+            if (entry.equals(previous)) {
+                return false;
+            }
+            count(previous, -1);
+            count(entry, 1);
+            return true;
+        }
+
+        boolean remove(Long conversationId) {
+            UnreadEntry previous = unread.remove(conversationId);
+            count(previous, -1);
+            return previous != null;
+        }
+
+        boolean setArchived(Long conversationId, boolean archived) {
+            UnreadEntry entry = unread.get(conversationId);
+            return entry != null && put(conversationId, entry.withArchived(archived));
+        }
+
+        boolean setSold(Long listingId, boolean sold) {
+            boolean changed = false;
+            for (Map.Entry<Long, UnreadEntry> e : List.copyOf(unread.entrySet())) {
+                if (listingId.equals(e.getValue().listingId()) && e.getValue().sold() != null) {
+                    changed |= put(e.getKey(), e.getValue().withSold(sold));
+                }
+            }
+            return changed;
+        }
+
+        // Same tab rules as ConversationService.getConversationsForUser
+        private void count(UnreadEntry entry, int delta) {
+            if (entry == null) {
+                return;
+            }
+            if (entry.archived()) {
+                counts[ARCHIVED] += delta;
+                return;
+            }
+            counts[ALL] += delta;
+            if (entry.seller() == null || entry.sold() == null) {
+                return;
+            }
+            if (entry.seller()) {
+                counts[entry.sold() ? SOLD : SELLING] += delta;
+            } else {
+                counts[entry.sold() ? PURCHASED : BUYING] += delta;
+            }
+        }
+
+        Map<String, Integer> toMap() {
+            Map<String, Integer> result = new HashMap<>();
+            for (int i = 0; i < TABS.length; i++) {
+                result.put(TABS[i], counts[i]);
+            }
+            result.put("Unread", counts[ALL]); // Every non-archived unread conversation
+            return result;
+        }
+    }
+}
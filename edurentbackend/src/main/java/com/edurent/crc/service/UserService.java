@@ -27,6 +27,12 @@ import com.edurent.crc.entity.UserEntity;
 import com.edurent.crc.repository.SchoolRepository;
 import com.edurent.crc.repository.UserRepository;
 import com.edurent.crc.security.JwtService;
+import com.edurent.crc.security.RefreshSessionService;
+import com.edurent.crc.security.RefreshSessionService.RefreshSession;
+import com.edurent.crc.security.TokenRevocationService;
+import com.edurent.crc.security.UserPrincipalCache;
+
+import io.jsonwebtoken.Claims;
 
 @Service
 public class UserService {
@@ -40,6 +46,12 @@ public class UserService {
     @Autowired
     private JwtService jwtService;
     @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private RefreshSessionService refreshSessionService;
+    @Autowired
     private AuthenticationManager authenticationManager;
 
     // --- Auth Methods ---
@@ -98,8 +110,7 @@ public class UserService {
         UserEntity savedUser = userRepository.save(newUser);
 
         // 6. Generate and return the token
-        String token = jwtService.generateToken(savedUser);
-        return new AuthResponse(token, "User registered successfully.");
+        return issueTokens(savedUser, "User registered successfully.");
     }
 
     // Login Method
@@ -113,9 +124,36 @@ public class UserService {
         // 2. If authentication is successful, get the user
         UserEntity user = (UserEntity) authentication.getPrincipal();
 
-        // 3. Generate and return the token
-        String token = jwtService.generateToken(user);
-        return new AuthResponse(token, "User logged in successfully.");
+        // 3. Generate and return the tokens
+        return issueTokens(user, "User logged in successfully.");
+    }
+
+    // Exchange a refresh token for a new access/refresh pair. Checked against the
+    // stored token version, so a password change or reset invalidates it, and
+    // rotated: the presented token is spent, a second use revokes its session.
+    public AuthResponse refreshTokens(String refreshToken) {
+        Claims claims = jwtService.parseRefreshToken(refreshToken);
+        Long userId = ((Number) claims.get("userId")).longValue();
+        int version = ((Number) claims.get(JwtService.VERSION_CLAIM)).intValue();
+
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found."));
+        if (user.getTokenVersion() != version) {
+            throw new IllegalArgumentException("Refresh token has been revoked.");
+        }
+        RefreshSession next = refreshSessionService.rotate(userId, claims.get(JwtService.SESSION_CLAIM, String.class),
+                ((Number) claims.get(JwtService.GENERATION_CLAIM)).intValue());
+        return issueTokens(user, next, "Token refreshed.");
+    }
+
+    // New login: starts a refresh session
+    private AuthResponse issueTokens(UserEntity user, String message) {
+        return issueTokens(user, refreshSessionService.start(user.getUserId()), message);
+    }
+
+    private AuthResponse issueTokens(UserEntity user, RefreshSession session, String message) {
+        return new AuthResponse(jwtService.generateToken(user), jwtService.generateRefreshToken(user, session),
+                message);
     }
 
     // --- Other User Service Methods ---
@@ -138,6 +176,7 @@ public class UserService {
 
     public void deleteUser(@NonNull Long id) {
         userRepository.deleteById(id);
+        userPrincipalCache.evictAfterCommit(id);
     }
 
     // Update Current User Profile
@@ -170,11 +209,14 @@ public class UserService {
         if (req.getInstagramUrl() != null)
             currentUser.setInstagramUrl(req.getInstagramUrl());
 
-        return userRepository.save(currentUser);
+        UserEntity saved = userRepository.save(currentUser);
+        userPrincipalCache.evictAfterCommit(saved.getUserId());
+        return saved;
     }
 
     // Change password for current user
-    public void changePassword(@NonNull UserEntity currentUser, String currentPassword, String newPassword) {
+    // Revokes every existing token and returns a fresh pair for the current session
+    public AuthResponse changePassword(@NonNull UserEntity currentUser, String currentPassword, String newPassword) {
         // verify current password
         if (!passwordEncoder.matches(currentPassword, currentUser.getPasswordHash())) {
             throw new IllegalArgumentException("Current password is incorrect.");
@@ -185,7 +227,11 @@ public class UserService {
         }
         // update hash
         currentUser.setPasswordHash(passwordEncoder.encode(newPassword));
-        userRepository.save(currentUser);
+        currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
+        UserEntity saved = userRepository.save(currentUser);
+        userPrincipalCache.evictAfterCommit(saved.getUserId());
+        tokenRevocationService.revokeBeforeAfterCommit(saved.getUserId(), saved.getTokenVersion());
+        return issueTokens(saved, "Password changed successfully.");
     }
 
     @Autowired
@@ -0,0 +1,62 @@
+package com.edurent.crc.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ListingStatusTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Sold", "SOLD", "sold", "  Sold " })
+    void fromLabelIgnoresCaseAndSurroundingWhitespace(String value) {
+        assertThat(ListingStatus.fromLabel(value)).isEqualTo(ListingStatus.SOLD);
+    }
+
+    @Test
+    void fromLabelRejectsUnknownOrNull() {
+        assertThatThrownBy(() -> ListingStatus.fromLabel("Reserved")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ListingStatus.fromLabel(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void codesRoundTripAndUnknownCodesAreRejected() {
+        for (ListingStatus status : ListingStatus.values()) {
+            assertThat(ListingStatus.fromCode(status.getCode())).isEqualTo(status);
+        }
+        assertThatThrownBy(() -> ListingStatus.fromCode((short) 99)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void codesAreStable() {
+        // Stored in the database; changing them needs a data migration
+        assertThat(Arrays.stream(ListingStatus.values()).map(ListingStatus::getCode))
+                .containsExactly((short) 0, (short) 1, (short) 2, (short) 3);
+    }
+
+    @Test
+    void rangesCoverExactlyTheirGroups() {
+        assertThat(statusesIn(ListingStatus.PUBLIC)).containsExactly(ListingStatus.AVAILABLE, ListingStatus.RENTED);
+        assertThat(statusesIn(ListingStatus.PROFILE))
+                .containsExactly(ListingStatus.AVAILABLE, ListingStatus.RENTED, ListingStatus.SOLD);
+        assertThat(statusesIn(ListingStatus.SOLD_ONLY)).containsExactly(ListingStatus.SOLD);
+        assertThat(statusesIn(ListingStatus.SOLD_OR_RENTED)).containsExactly(ListingStatus.RENTED, ListingStatus.SOLD);
+        assertThat(ListingStatus.PUBLIC.contains(null)).isFalse();
+    }
+
+    @Test
+    void converterMapsCodesBothWays() {
+        ListingStatusConverter converter = new ListingStatusConverter();
+
+        assertThat(converter.convertToDatabaseColumn(ListingStatus.RENTED)).isEqualTo((short) 1);
+        assertThat(converter.convertToEntityAttribute((short) 3)).isEqualTo(ListingStatus.INACTIVE);
+    }
+
+    private static ListingStatus[] statusesIn(ListingStatus.Range range) {
+        return Arrays.stream(ListingStatus.values()).filter(range::contains).toArray(ListingStatus[]::new);
+    }
+}
@@ -0,0 +1,130 @@
+package com.edurent.crc.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.edurent.crc.entity.ConversationEntity;
+import com.edurent.crc.entity.ConversationParticipantEntity;
+import com.edurent.crc.entity.ConversationParticipantIdEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.entity.SchoolEntity;
+import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.service.KeysetCursor;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Keyset inbox paging on the stored per-participant sort key: windows follow
+ * (last_activity_at DESC, conversation_id DESC) with no gaps or repeats,
+ * including rows that share a timestamp.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class ConversationParticipantRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private ConversationParticipantRepository participantRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserEntity user;
+    // Expected inbox order, newest first
+    private final List<Long> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        SchoolEntity school = new SchoolEntity("Test University", "test.edu", "Cebu");
+        entityManager.persist(school);
+        user = user(school, 1);
+        UserEntity other = user(school, 2);
+
+        // Minutes of activity; three conversations tie at +2
+        int[] minutes = { 0, 1, 2, 2, 2, 3, 4 };
+        List<Long> ids = new ArrayList<>();
+        for (int m : minutes) {
+            ids.add(conversation(user, BASE.plusMinutes(m), false));
+        }
+        // Never listed: archived, or another user's inbox
+        conversation(user, BASE.plusMinutes(10), true);
+        conversation(other, BASE.plusMinutes(10), false);
+        entityManager.flush();
+        entityManager.clear();
+
+        // +4, +3, then the +2 ties by id descending, +1, +0
+        expected.addAll(List.of(ids.get(6), ids.get(5), ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(0)));
+    }
+
+    @Test
+    void windowsWalkTheInboxWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        KeysetCursor position = KeysetCursor.START;
+        int windows = 0;
+        while (true) {
+            List<Object[]> rows = page(position, 3);
+            rows.forEach(row -> seen.add(((Number) row[0]).longValue()));
+            windows++;
+            if (rows.size() < 3) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            position = new KeysetCursor(toLocalDateTime(last[2]), ((Number) last[0]).longValue());
+        }
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(windows).isEqualTo(3);
+    }
+
+    @Test
+    void touchActivityOnlyMovesTheSortKeyForward() {
+        Long oldest = expected.get(expected.size() - 1);
+
+        participantRepository.touchActivity(oldest, user.getUserId(), BASE.minusDays(1));
+        assertThat(page(KeysetCursor.START, 1).get(0)[0]).isNotEqualTo(oldest);
+
+        participantRepository.touchActivity(oldest, user.getUserId(), BASE.plusMinutes(5));
+        assertThat(((Number) page(KeysetCursor.START, 1).get(0)[0]).longValue()).isEqualTo(oldest);
+    }
+
+    private List<Object[]> page(KeysetCursor position, int limit) {
+        return participantRepository.findInboxPage(user.getUserId(), null, false, null, null, false,
+                ListingStatus.SOLD_OR_RENTED.from().getCode(), ListingStatus.SOLD_OR_RENTED.to().getCode(),
+                position.timestamp(), position.id(), limit);
+    }
+
+    private Long conversation(UserEntity owner, LocalDateTime activity, boolean archived) {
+        ConversationEntity conversation = new ConversationEntity();
+        entityManager.persist(conversation);
+
+        ConversationParticipantEntity participant = new ConversationParticipantEntity(
+                new ConversationParticipantIdEntity(conversation.getConversationId(), owner.getUserId()),
+                conversation, owner);
+        participant.setIsArchived(archived);
+        participant.setLastActivityAt(activity);
+        entityManager.persist(participant);
+        return conversation.getConversationId();
+    }
+
+    private UserEntity user(SchoolEntity school, int n) {
+        UserEntity user = new UserEntity();
+        user.setFullName("User " + n);
+        user.setStudentIdNumber("S-" + n);
+        user.setEmail("user" + n + "@test.edu");
+        user.setPasswordHash("x");
+        user.setSchool(school);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof java.sql.Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.edurent.crc.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.security.RefreshSessionService.RefreshSession;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * The verified-token cache must never stand in for signature or expiry
+ * checks: a token that differs in any byte is verified again, and an entry
+ * lives no longer than its token.
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+    private final AtomicLong nanos = new AtomicLong();
+    private JwtService jwtService;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenMinutes", 15L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenDays", 14L);
+        ReflectionTestUtils.setField(jwtService, "ticker", (Ticker) nanos::get);
+        jwtService.init();
+
+        user = new UserEntity();
+        user.setUserId(7L);
+        user.setEmail("student@test.edu");
+        user.setFullName("Test Student");
+        user.setTokenVersion(2);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedWhileTheOriginalIsCached() {
+        String token = jwtService.generateToken(user);
+        assertThat(jwtService.toPrincipal(jwtService.parseClaims(token)).getUserId()).isEqualTo(7L);
+
+        // Same header and signature, payload claiming another user
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"userId\":7", "\"userId\":1");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtService.parseClaims(forged)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.parseClaims(token + "x")).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void cacheEntriesExpireAtTheTokensExp() {
+        String token = Jwts.builder()
+                .claim(JwtService.TYPE_CLAIM, "access")
+                .setSubject(user.getEmail())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        jwtService.parseClaims(token);
+        assertThat(verifiedTokens().estimatedSize()).isEqualTo(1);
+
+        // exp has second precision, so the entry lives between 59 and 60 seconds
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(58));
+        verifiedTokens().cleanUp();
+        assertThat(verifiedTokens().asMap()).hasSize(1);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        verifiedTokens().cleanUp();
+        assertThat(verifiedTokens().asMap()).isEmpty();
+    }
+
+    @Test
+    void refreshTokenYieldsNoPrincipal() {
+        String refreshToken = jwtService.generateRefreshToken(user, new RefreshSession("session-1", 0));
+        Claims claims = jwtService.parseClaims(refreshToken);
+
+        assertThat(jwtService.toPrincipal(claims)).isNull();
+        assertThat(jwtService.parseRefreshToken(refreshToken).getSubject()).isEqualTo("student@test.edu");
+        // And an access token is not accepted as a refresh token
+        assertThatThrownBy(() -> jwtService.parseRefreshToken(jwtService.generateToken(user)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, Claims> verifiedTokens() {
+        return (Cache<String, Claims>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+    }
+}
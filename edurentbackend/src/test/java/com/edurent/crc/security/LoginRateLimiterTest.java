@@ -0,0 +1,85 @@
+package com.edurent.crc.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+class LoginRateLimiterTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerAccount", 3);
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerIp", 5);
+        ReflectionTestUtils.setField(limiter, "windowMinutes", 15L);
+        ReflectionTestUtils.setField(limiter, "ticker", (Ticker) nanos::get);
+        limiter.init();
+    }
+
+    @Test
+    void accountIsBlockedAfterItsFailedAttempts() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a@test.edu", IP).allowed()).isTrue();
+        }
+        assertThat(limiter.tryAcquire("A@Test.edu ", IP).allowed()).isFalse();
+        // Other accounts behind the same address are unaffected
+        assertThat(limiter.tryAcquire("b@test.edu", IP).allowed()).isTrue();
+    }
+
+    @Test
+    void successfulLoginsDoNotUseUpTheIpWindow() {
+        // A classroom behind one NAT address: far more logins than the IP limit
+        for (int i = 0; i < 20; i++) {
+            String email = "student" + i + "@test.edu";
+            assertThat(limiter.tryAcquire(email, IP).allowed()).isTrue();
+            limiter.succeeded(email, IP);
+        }
+    }
+
+    @Test
+    void failedAttemptsAcrossAccountsHitTheIpLimit() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("victim" + i + "@test.edu", IP).allowed()).isTrue();
+        }
+        assertThat(limiter.tryAcquire("victim5@test.edu", IP).allowed()).isFalse();
+        assertThat(limiter.tryAcquire("x@test.edu", "10.0.0.2").allowed()).isTrue();
+    }
+
+    @Test
+    void successClearsTheAccountWindow() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a@test.edu", IP);
+        }
+        limiter.succeeded("a@test.edu", IP);
+
+        assertThat(limiter.tryAcquire("a@test.edu", IP).allowed()).isTrue();
+    }
+
+    @Test
+    void retryAfterIsTheTimeLeftInTheWindow() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a@test.edu", IP);
+        }
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        LoginRateLimiter.Attempt attempt = limiter.tryAcquire("a@test.edu", IP);
+        assertThat(attempt.allowed()).isFalse();
+        assertThat(attempt.retryAfterSeconds()).isEqualTo(5 * 60);
+
+        // Once the window has passed, the account starts over
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertThat(limiter.tryAcquire("a@test.edu", IP).allowed()).isTrue();
+    }
+}
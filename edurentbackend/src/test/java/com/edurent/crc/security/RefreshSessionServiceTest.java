@@ -0,0 +1,103 @@
+package com.edurent.crc.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.edurent.crc.repository.RefreshSessionRepository;
+import com.edurent.crc.security.RefreshSessionService.RefreshSession;
+
+/**
+ * Refresh tokens are single use: each refresh advances the session's
+ * generation, and presenting a spent generation revokes the session, except
+ * for the previous one right after a rotation (two tabs racing).
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(RefreshSessionService.class)
+class RefreshSessionServiceTest {
+
+    @Autowired
+    private RefreshSessionService refreshSessionService;
+    @Autowired
+    private RefreshSessionRepository refreshSessionRepository;
+
+    @Test
+    void eachRefreshAdvancesTheGeneration() {
+        RefreshSession first = refreshSessionService.start(1L);
+        assertThat(first.generation()).isZero();
+
+        RefreshSession second = refreshSessionService.rotate(1L, first.sessionId(), 0);
+        RefreshSession third = refreshSessionService.rotate(1L, first.sessionId(), 1);
+
+        assertThat(second).isEqualTo(new RefreshSession(first.sessionId(), 1));
+        assertThat(third).isEqualTo(new RefreshSession(first.sessionId(), 2));
+    }
+
+    @Test
+    void aRacingRefreshWithThePreviousTokenGetsTheCurrentGeneration() {
+        RefreshSession session = refreshSessionService.start(1L);
+        refreshSessionService.rotate(1L, session.sessionId(), 0);
+
+        // Second tab, same token, moments later: re-issued generation 1, session kept
+        assertThat(refreshSessionService.rotate(1L, session.sessionId(), 0))
+                .isEqualTo(new RefreshSession(session.sessionId(), 1));
+        assertThat(refreshSessionService.rotate(1L, session.sessionId(), 1).generation()).isEqualTo(2);
+    }
+
+    @Test
+    void reusingAnOlderTokenRevokesTheSession() {
+        RefreshSession session = refreshSessionService.start(1L);
+        refreshSessionService.rotate(1L, session.sessionId(), 0);
+        refreshSessionService.rotate(1L, session.sessionId(), 1);
+
+        assertThatThrownBy(() -> refreshSessionService.rotate(1L, session.sessionId(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        // The legitimate holder of generation 2 is logged out as well
+        assertThat(refreshSessionRepository.findById(session.sessionId())).isEmpty();
+        assertThatThrownBy(() -> refreshSessionService.rotate(1L, session.sessionId(), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void thePreviousTokenAfterTheGraceWindowRevokesTheSession() {
+        RefreshSession session = refreshSessionService.start(1L);
+        refreshSessionService.rotate(1L, session.sessionId(), 0);
+        refreshSessionRepository.findById(session.sessionId()).orElseThrow()
+                .setRotatedAt(Instant.now().minusSeconds(60));
+        refreshSessionRepository.flush();
+
+        assertThatThrownBy(() -> refreshSessionService.rotate(1L, session.sessionId(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(refreshSessionRepository.findById(session.sessionId())).isEmpty();
+    }
+
+    @Test
+    void sessionsAreIndependentPerLogin() {
+        RefreshSession laptop = refreshSessionService.start(1L);
+        RefreshSession phone = refreshSessionService.start(1L);
+
+        refreshSessionService.rotate(1L, laptop.sessionId(), 0);
+
+        assertThat(refreshSessionService.rotate(1L, phone.sessionId(), 0).generation()).isEqualTo(1);
+    }
+
+    @Test
+    void anotherUsersOrAnExpiredSessionIsRejected() {
+        RefreshSession session = refreshSessionService.start(1L);
+        assertThatThrownBy(() -> refreshSessionService.rotate(2L, session.sessionId(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        RefreshSession expired = refreshSessionService.start(1L);
+        refreshSessionRepository.findById(expired.sessionId()).orElseThrow()
+                .setExpiresAt(Instant.now().minusSeconds(1));
+        refreshSessionRepository.flush();
+        assertThatThrownBy(() -> refreshSessionService.rotate(1L, expired.sessionId(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.edurent.crc.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocationService, "accessTokenMinutes", 15L);
+        revocationService.init();
+    }
+
+    @Test
+    void usersWithoutAVersionChangeAreNeverRevoked() {
+        assertThat(revocationService.isRevoked(1L, 0)).isFalse();
+    }
+
+    @Test
+    void tokensBelowTheCurrentVersionAreRevoked() {
+        // No transaction is active, so the revocation applies immediately
+        revocationService.revokeBeforeAfterCommit(1L, 3);
+
+        assertThat(revocationService.isRevoked(1L, 2)).isTrue();
+        assertThat(revocationService.isRevoked(1L, 3)).isFalse();
+        assertThat(revocationService.isRevoked(2L, 0)).isFalse();
+    }
+
+    @Test
+    void aLateOlderRevocationDoesNotLowerTheMinimum() {
+        revocationService.revokeBeforeAfterCommit(1L, 5);
+        revocationService.revokeBeforeAfterCommit(1L, 4);
+
+        assertThat(revocationService.isRevoked(1L, 4)).isTrue();
+    }
+}
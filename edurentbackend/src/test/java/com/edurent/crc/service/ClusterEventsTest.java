@@ -0,0 +1,95 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ClusterEventsTest {
+
+    record Eviction(Long listingId, List<String> feeds) {
+    }
+
+    // Delivers every message to every subscriber, the publisher included (like NOTIFY)
+    static class InMemoryBus implements ClusterBus {
+        final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(String message) {
+            listeners.forEach(listener -> listener.accept(message));
+        }
+
+        @Override
+        public void subscribe(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryBus bus = new InMemoryBus();
+    private ClusterEvents nodeA;
+    private ClusterEvents nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node(bus);
+        nodeB = node(bus);
+    }
+
+    @Test
+    void otherInstancesReceiveTypedEventsButThePublisherDoesNot() throws InterruptedException {
+        BlockingQueue<Eviction> receivedByA = new LinkedBlockingQueue<>();
+        BlockingQueue<Eviction> receivedByB = new LinkedBlockingQueue<>();
+        nodeA.on("pages.evict", Eviction.class, receivedByA::add);
+        nodeB.on("pages.evict", Eviction.class, receivedByB::add);
+
+        nodeA.publish("pages.evict", new Eviction(7L, List.of("all", "category_2")));
+
+        assertThat(receivedByB.poll(5, TimeUnit.SECONDS)).isEqualTo(new Eviction(7L, List.of("all", "category_2")));
+        assertThat(receivedByA).isEmpty();
+    }
+
+    @Test
+    void topicMessagesAndUnknownEventsAreIgnored() throws Exception {
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+        nodeB.on("meta.evict", Long.class, received::add);
+
+        // TopicPublisher envelope on the same bus
+        bus.publish("{\"nodeId\":\"x\",\"destination\":\"/topic/user.1\",\"payload\":{}}");
+        nodeA.publish("other.event", 1L);
+        nodeA.publish("meta.evict", 42L);
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void withoutABusEventsStayLocal() throws InterruptedException {
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+        nodeB.on("meta.evict", Long.class, received::add);
+        ClusterEvents standalone = new ClusterEvents();
+        ReflectionTestUtils.setField(standalone, "objectMapper", objectMapper);
+        standalone.subscribe();
+
+        standalone.publish("meta.evict", 1L);
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private ClusterEvents node(ClusterBus clusterBus) {
+        ClusterEvents events = new ClusterEvents();
+        ReflectionTestUtils.setField(events, "clusterBus", clusterBus);
+        ReflectionTestUtils.setField(events, "objectMapper", objectMapper);
+        events.subscribe();
+        return events;
+    }
+}
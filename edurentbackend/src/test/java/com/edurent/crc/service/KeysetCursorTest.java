@@ -0,0 +1,53 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+
+        String cursor = KeysetCursor.encode(createdAt, 42L);
+
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo(new KeysetCursor(createdAt, 42L));
+    }
+
+    @Test
+    void encodedCursorIsUrlSafeWithoutPadding() {
+        String cursor = KeysetCursor.encode(LocalDateTime.of(2025, 1, 1, 0, 0), 1L);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void missingCursorStartsAtTheNewestRow() {
+        assertThat(KeysetCursor.decode(null)).isEqualTo(KeysetCursor.START);
+        assertThat(KeysetCursor.decode("  ")).isEqualTo(KeysetCursor.START);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "not base64!", "Zm9v", "MjAyNS0wMS0wMVQwMDowMHxhYmM", "fDEy" })
+    void rejectsMalformedCursors(String cursor) {
+        // "Zm9v" = "foo" (no separator), "MjAy...YWJj" = "2025-01-01T00:00|abc", "fDEy" = "|12"
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor");
+    }
+
+    @Test
+    void rejectsInvalidTimestamp() {
+        String cursor = Base64.getUrlEncoder().encodeToString("2025-13-45T99:00|7".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,204 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.repository.ListingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSearchServiceTest {
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    @Mock
+    private ClusterEvents clusterEvents;
+
+    @InjectMocks
+    private ListingSearchService searchService;
+
+    // --- Tokenizer ---
+
+    @Test
+    void tokenizeLowercasesSplitsOnPunctuationAndDropsStopWords() {
+        assertThat(ListingSearchService.tokenize("The TI-84 Calculator, for Calculus!"))
+                .containsExactly("ti", "84", "calculator", "calculus");
+    }
+
+    @Test
+    void tokenizeReturnsEmptyForNullOrBlank() {
+        assertThat(ListingSearchService.tokenize(null)).isEmpty();
+        assertThat(ListingSearchService.tokenize("   ")).isEmpty();
+        assertThat(ListingSearchService.tokenize("the and of")).isEmpty();
+    }
+
+    // --- Ranking ---
+
+    @Test
+    void titleMatchOutranksDescriptionMatch() {
+        index(row(1L, "Desk lamp", "Bright LED, works with any calculator desk", "Good"),
+                row(2L, "Graphing calculator", "Barely used", "Good"));
+
+        assertThat(searchService.search("calculator", 0, 10).getListingIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index(row(1L, "Chemistry textbook", "", "Good"),
+                row(2L, "Physics textbook", "", "Good"));
+
+        ListingSearchService.SearchResult result = searchService.search("physics textbook", 0, 10);
+        assertThat(result.getListingIds()).containsExactly(2L);
+        assertThat(result.getTotalHits()).isEqualTo(1);
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixAndExactMatchScoresHigher() {
+        index(row(1L, "Calculators bundle", "", "Good"),
+                row(2L, "Calc", "", "Good"));
+
+        assertThat(searchService.search("calc", 0, 10).getListingIds()).containsExactly(2L, 1L);
+        // Only the last term is a prefix
+        assertThat(searchService.search("calc bundle", 0, 10).getListingIds()).isEmpty();
+    }
+
+    @Test
+    void nonPublicListingsAreExcluded() {
+        index(row(1L, "Microscope", "", "Good", ListingStatus.SOLD),
+                row(2L, "Microscope", "", "Good", ListingStatus.RENTED),
+                row(3L, "Microscope", "", "Good", ListingStatus.INACTIVE));
+
+        assertThat(searchService.search("microscope", 0, 10).getListingIds()).containsExactly(2L);
+    }
+
+    @Test
+    void pagesAreSlicedFromTheRankedHits() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            rows.add(row(id, "Notebook", "", "Good"));
+        }
+        index(rows.toArray(Object[][]::new));
+
+        // Equal scores: newer (higher ID) listing first
+        assertThat(searchService.search("notebook", 0, 2).getListingIds()).containsExactly(5L, 4L);
+        assertThat(searchService.search("notebook", 2, 2).getListingIds()).containsExactly(1L);
+        assertThat(searchService.search("notebook", 3, 2).getListingIds()).isEmpty();
+        assertThat(searchService.search("notebook", 0, 2).getTotalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void prefixExpansionIsCapped() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            rows.add(row(id, String.format("item%03d", id), "", "Good"));
+        }
+        index(rows.toArray(Object[][]::new));
+
+        assertThat(searchService.search("item", 0, 10).getTotalHits()).isEqualTo(64);
+    }
+
+    // --- Index maintenance ---
+
+    @Test
+    void incrementalUpdatesAreSearchable() {
+        index(row(1L, "Old title", "", "Good"));
+
+        searchService.indexAfterCommit(listing(1L, "Drafting table"));
+        searchService.indexAfterCommit(listing(2L, "Drafting pens"));
+        searchService.removeAfterCommit(2L);
+
+        assertThat(searchService.search("title", 0, 10).getListingIds()).isEmpty();
+        assertThat(searchService.search("drafting", 0, 10).getListingIds()).containsExactly(1L);
+
+        searchService.updateStatusAfterCommit(1L, ListingStatus.SOLD);
+        assertThat(searchService.search("drafting", 0, 10).getListingIds()).isEmpty();
+    }
+
+    @Test
+    void changesMadeDuringRebuildSurviveTheSwap() {
+        when(listingRepository.findSearchDocuments()).thenAnswer(invocation -> {
+            // A listing committed while the snapshot is loading
+            searchService.indexAfterCommit(listing(2L, "Soldering iron"));
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(row(1L, "Soldering station", "", "Good"));
+            return rows;
+        });
+        searchService.rebuildIndex();
+
+        assertThat(searchService.search("soldering", 0, 10).getListingIds()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void localChangesAreAnnouncedToOtherInstances() {
+        index();
+        searchService.indexAfterCommit(listing(1L, "Lab coat"));
+        searchService.removeAfterCommit(1L);
+
+        verify(clusterEvents, times(2)).publish("search.reindex", 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changesFromOtherInstancesAreReadFromTheDatabase() {
+        ArgumentCaptor<Consumer<Long>> handler = ArgumentCaptor.forClass(Consumer.class);
+        searchService.subscribeToCluster();
+        verify(clusterEvents).on(eq("search.reindex"), eq(Long.class), handler.capture());
+
+        index(row(1L, "Lab goggles", "", "Good"));
+        List<Object[]> edited = new ArrayList<>();
+        edited.add(row(1L, "Safety goggles", "", "Good"));
+        when(listingRepository.findSearchDocument(1L)).thenReturn(edited);
+        when(listingRepository.findSearchDocument(2L)).thenReturn(List.of());
+
+        handler.getValue().accept(1L);
+        assertThat(searchService.search("safety", 0, 10).getListingIds()).containsExactly(1L);
+        assertThat(searchService.search("lab", 0, 10).getListingIds()).isEmpty();
+
+        // Deleted on the other instance
+        index(row(2L, "Goggles case", "", "Good"));
+        handler.getValue().accept(2L);
+        assertThat(searchService.search("goggles", 0, 10).getListingIds()).isEmpty();
+    }
+
+    // --- Helpers ---
+
+    private void index(Object[]... rows) {
+        when(listingRepository.findSearchDocuments()).thenReturn(List.of(rows));
+        searchService.rebuildIndex();
+    }
+
+    private static Object[] row(Long id, String title, String description, String condition) {
+        return row(id, title, description, condition, ListingStatus.AVAILABLE);
+    }
+
+    private static Object[] row(Long id, String title, String description, String condition,
+            ListingStatus status) {
+        return new Object[] { id, title, description, condition, status };
+    }
+
+    private static ListingEntity listing(Long id, String title) {
+        ListingEntity listing = new ListingEntity();
+        listing.setListingId(id);
+        listing.setTitle(title);
+        listing.setDescription("");
+        listing.setCondition("Good");
+        listing.setStatus(ListingStatus.AVAILABLE);
+        return listing;
+    }
+}
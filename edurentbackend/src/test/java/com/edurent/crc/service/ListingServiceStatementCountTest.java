@@ -0,0 +1,156 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.edurent.crc.dto.ListingDTO;
+import com.edurent.crc.entity.CategoryEntity;
+import com.edurent.crc.entity.ListingEntity;
+import com.edurent.crc.entity.ListingImageEntity;
+import com.edurent.crc.entity.ListingStatus;
+import com.edurent.crc.entity.SchoolEntity;
+import com.edurent.crc.entity.TransactionEntity;
+import com.edurent.crc.entity.UserEntity;
+import com.edurent.crc.mapper.ListingMapper;
+import com.edurent.crc.repository.ListingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mapping a listing page must cost the same number of statements whatever the
+ * page size: images and latest transactions are batch-loaded for the page.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ ListingService.class, ListingMapper.class })
+class ListingServiceStatementCountTest {
+
+    private static final int LISTINGS = 25;
+
+    @Autowired
+    private ListingService listingService;
+    @Autowired
+    private ListingRepository listingRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Collaborators not involved in DTO assembly
+    @MockitoBean
+    private CloudinaryService cloudinaryService;
+    @MockitoBean
+    private ListingSearchService listingSearchService;
+    @MockitoBean
+    private ListingPageCache listingPageCache;
+    @MockitoBean
+    private UnreadCountService unreadCountService;
+    @MockitoBean
+    private ConversationMetadataCache conversationMetadataCache;
+    @MockitoBean
+    private ListingFacetService listingFacetService;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        SchoolEntity school = new SchoolEntity("Test University", "test.edu", "Cebu");
+        entityManager.persist(school);
+
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Books");
+        category.setSlug("books");
+        entityManager.persist(category);
+
+        UserEntity buyer = user(school, 0);
+        for (int i = 1; i <= LISTINGS; i++) {
+            // A different seller per listing, so per-row user loads would show up
+            UserEntity seller = user(school, i);
+
+            ListingEntity listing = new ListingEntity();
+            listing.setTitle("Listing " + i);
+            listing.setCondition("Good");
+            listing.setListingType("For Rent");
+            listing.setPrice(100.0);
+            listing.setStatus(ListingStatus.AVAILABLE);
+            listing.setUser(seller);
+            listing.setCategory(category);
+            entityManager.persist(listing);
+
+            for (int j = 0; j < 2; j++) {
+                ListingImageEntity image = new ListingImageEntity();
+                image.setImageUrl("https://img.test/" + i + "/" + j);
+                image.setListing(listing);
+                entityManager.persist(image);
+
+                TransactionEntity transaction = new TransactionEntity();
+                transaction.setTransactionType("Rent");
+                transaction.setStatus(j == 0 ? "Completed" : "Active");
+                transaction.setListing(listing);
+                transaction.setBuyer(buyer);
+                transaction.setSeller(seller);
+                entityManager.persist(transaction);
+            }
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        long small = statementsToMapPage(5);
+        long large = statementsToMapPage(20);
+
+        assertThat(large).isEqualTo(small);
+        // Page, COUNT, sellers' school (eager, batch-fetched), images, latest transactions
+        assertThat(small).isEqualTo(5);
+    }
+
+    private long statementsToMapPage(int size) {
+        entityManager.clear();
+        statistics.clear();
+
+        Page<ListingEntity> page = listingRepository.findByStatusBetween(ListingStatus.PUBLIC.from(),
+                ListingStatus.PUBLIC.to(), PageRequest.of(0, size, Sort.by("createdAt").descending()));
+        List<ListingDTO> dtos = listingService.toDTOPage(page).getContent();
+
+        assertThat(dtos).hasSize(size);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getImages()).hasSize(2);
+            // Only the latest transaction per listing
+            assertThat(dto.getTransactions()).hasSize(1);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserEntity user(SchoolEntity school, int n) {
+        UserEntity user = new UserEntity();
+        user.setFullName("User " + n);
+        user.setStudentIdNumber("S-" + n);
+        user.setEmail("user" + n + "@test.edu");
+        user.setPasswordHash("x");
+        user.setSchool(school);
+        entityManager.persist(user);
+        return user;
+    }
+}
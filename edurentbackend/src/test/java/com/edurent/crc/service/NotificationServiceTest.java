@@ -0,0 +1,73 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import com.edurent.crc.dto.CursorPageDTO;
+import com.edurent.crc.entity.NotificationEntity;
+import com.edurent.crc.repository.NotificationRepository;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private NotificationService notificationService;
+
+    @Test
+    void firstWindowReturnsACursorAtItsLastRow() {
+        when(notificationRepository.findLatestByUserId(eq(1L), eq(false), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(9L, T), row(8L, T.minusMinutes(1))), PageRequest.ofSize(2), true));
+
+        CursorPageDTO<NotificationEntity> window = notificationService.getNotificationsForUser(1L, false, null, 2);
+
+        assertThat(window.getContent()).hasSize(2);
+        assertThat(KeysetCursor.decode(window.getNextCursor())).isEqualTo(new KeysetCursor(T.minusMinutes(1), 8L));
+    }
+
+    @Test
+    void cursorPositionIsUsedAsIsWithoutRereadingTheRow() {
+        // The cursor row may since have been re-surfaced by an UPSERT or deleted by retention
+        when(notificationRepository.findOlderByUserId(eq(1L), eq(true), eq(T), eq(8L), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(5L, T.minusHours(1))), PageRequest.ofSize(2), false));
+
+        CursorPageDTO<NotificationEntity> window = notificationService.getNotificationsForUser(1L, true,
+                KeysetCursor.encode(T, 8L), 2);
+
+        assertThat(window.getContent()).extracting(NotificationEntity::getNotificationId).containsExactly(5L);
+        assertThat(window.getNextCursor()).isNull();
+        verifyNoMoreInteractions(notificationRepository);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> notificationService.getNotificationsForUser(1L, false, "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static NotificationEntity row(Long id, LocalDateTime createdAt) {
+        NotificationEntity notification = new NotificationEntity();
+        notification.setNotificationId(id);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+}
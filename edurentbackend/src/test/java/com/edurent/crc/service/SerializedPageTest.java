@@ -0,0 +1,79 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SerializedPageTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void matchesEitherRepresentationsEtag() {
+        SerializedPage<Map<String, String>> page = SerializedPage.of(Map.of("title", "Lab coat"), objectMapper);
+
+        assertThat(page.matches(page.getEtag(false))).isTrue();
+        assertThat(page.matches(page.getEtag(true))).isTrue();
+    }
+
+    @Test
+    void matchesWeakValidatorsAndLists() {
+        SerializedPage<Map<String, String>> page = SerializedPage.of(Map.of("title", "Lab coat"), objectMapper);
+
+        assertThat(page.matches("W/" + page.getEtag(false))).isTrue();
+        assertThat(page.matches("\"other\", W/" + page.getEtag(true))).isTrue();
+    }
+
+    @Test
+    void matchesWildcard() {
+        SerializedPage<String> page = SerializedPage.of("x", objectMapper);
+
+        assertThat(page.matches("*")).isTrue();
+    }
+
+    @Test
+    void doesNotMatchOtherOrMissingEtags() {
+        SerializedPage<String> page = SerializedPage.of("x", objectMapper);
+        SerializedPage<String> other = SerializedPage.of("y", objectMapper);
+
+        assertThat(page.matches(null)).isFalse();
+        assertThat(page.matches(other.getEtag(false))).isFalse();
+        // Unquoted tag is not the same entity-tag
+        assertThat(page.matches(page.getEtag(false).replace("\"", ""))).isFalse();
+    }
+
+    @Test
+    void gzipsOnlyBodiesAboveTheThreshold() throws IOException {
+        SerializedPage<String> small = SerializedPage.of("x", objectMapper);
+        SerializedPage<List<String>> large = SerializedPage.of(List.of("a".repeat(2048)), objectMapper);
+
+        assertThat(small.getGzipped()).isNull();
+        assertThat(large.getGzipped()).isNotNull();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.getGzipped()))) {
+            assertThat(in.readAllBytes()).isEqualTo(large.getJson());
+        }
+    }
+
+    @Test
+    void acceptsGzipHonoursQValues() {
+        assertThat(SerializedPage.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(SerializedPage.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(SerializedPage.acceptsGzip("*")).isTrue();
+
+        assertThat(SerializedPage.acceptsGzip(null)).isFalse();
+        assertThat(SerializedPage.acceptsGzip("identity")).isFalse();
+        assertThat(SerializedPage.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedPage.acceptsGzip("gzip; q=0.0, br")).isFalse();
+        // An explicit refusal wins over the wildcard
+        assertThat(SerializedPage.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(SerializedPage.acceptsGzip("*;q=0")).isFalse();
+    }
+}
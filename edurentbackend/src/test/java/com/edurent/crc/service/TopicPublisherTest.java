@@ -0,0 +1,88 @@
+package com.edurent.crc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.edurent.crc.service.ClusterEventsTest.InMemoryBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Two instances on one in-memory bus: a /topic message published on one is
+ * delivered by the other to its own subscribers, once, and the publisher does
+ * not deliver its own message a second time when it comes back from the bus.
+ */
+class TopicPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryBus bus = new InMemoryBus();
+    private SimpMessagingTemplate templateA;
+    private SimpMessagingTemplate templateB;
+
+    @BeforeEach
+    void setUp() {
+        templateA = mock(SimpMessagingTemplate.class);
+        templateB = mock(SimpMessagingTemplate.class);
+    }
+
+    @Test
+    void remoteNodeDeliversAndTheOriginDeliversOnlyOnce() {
+        TopicPublisher nodeA = node(templateA, "simple");
+        node(templateB, "simple");
+
+        nodeA.publish("/topic/user.7", Map.of("unread", 3));
+
+        verify(templateA, times(1)).convertAndSend(eq("/topic/user.7"), any(Object.class));
+        verify(templateB, times(1)).convertAndSend(eq("/topic/user.7"), any(Object.class));
+        assertThat(bus.listeners).hasSize(2);
+    }
+
+    @Test
+    void cacheEventsOnTheSameBusAreNotDelivered() {
+        node(templateB, "simple");
+
+        bus.publish("{\"nodeId\":\"x\",\"event\":\"meta.evict\",\"data\":42}");
+
+        verify(templateB, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void relayModeDoesNotForwardOverTheBus() {
+        TopicPublisher nodeA = node(templateA, "relay");
+        node(templateB, "relay");
+        // The external broker fans out, so neither node subscribes and nothing is sent
+        assertThat(bus.listeners).isEmpty();
+        List<String> sent = new ArrayList<>();
+        bus.subscribe(sent::add);
+
+        nodeA.publish("/topic/conversation.5", Map.of("text", "hi"));
+
+        assertThat(sent).isEmpty();
+        verify(templateA, times(1)).convertAndSend(eq("/topic/conversation.5"), any(Object.class));
+        verify(templateB, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private TopicPublisher node(SimpMessagingTemplate template, String brokerMode) {
+        TopicPublisher publisher = new TopicPublisher();
+        ReflectionTestUtils.setField(publisher, "messagingTemplate", template);
+        ReflectionTestUtils.setField(publisher, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(publisher, "clusterBus", bus);
+        ReflectionTestUtils.setField(publisher, "brokerMode", brokerMode);
+        publisher.subscribe();
+        return publisher;
+    }
+}
@@ -16,6 +16,7 @@ import { useToast } from '../hooks/useToast';
 // API helpers to talk to the backend
 import { 
   getMyNotifications, 
+  getUnreadNotificationCount,
   markNotificationAsRead,
   markNotificationAsUnread, 
   deleteNotification,
@@ -56,6 +57,8 @@ export default function Header({
   const [notificationFilter, setNotificationFilter] = useState('all'); // 'all' or 'unread'
   const [notifPrefs, setNotifPrefs] = useState({ all_notifications: true, likes: true, messages: true, email: false });
   const [isLoadingNotifications, setIsLoadingNotifications] = useState(false);
+  const [hasMoreNotifications, setHasMoreNotifications] = useState(false);
+  const [notificationCursor, setNotificationCursor] = useState(null);
   
   const { showInfo } = useToast();
   const socketClientRef = useRef(null);
@@ -293,8 +296,8 @@ export default function Header({
     };
   }, [userData, showInfo]);
 
-  // Fetch notifications from the server, sort them by newest first, 
-  // and calculate unread badge count.
+  // Fetch the first page of notifications (server returns newest first)
+  // and the unread badge count.
   // NOTE: User preferences control whether NEW notifications are created (enforced by backend),
   // NOT whether existing notifications are visible. All existing notifications are always returned.
   const fetchNotifications = useCallback(async () => {
@@ -307,23 +310,18 @@ export default function Header({
       const prefs = await getNotificationPreferences(userData.userId);
       setNotifPrefs(prefs);
 
-      const response = await getMyNotifications(notificationFilter === 'unread');
-      const notifs = response.data || [];
+      const [response, countResponse] = await Promise.all([
+        getMyNotifications(notificationFilter === 'unread'),
+        getUnreadNotificationCount(),
+      ]);
 
-      // Sort by date (newest on top)
-      const sortedNotifs = notifs.sort((a, b) => {
-        return new Date(b.createdAt) - new Date(a.createdAt);
-      });
-      
       // Display ALL notifications returned by backend
-      setNotifications(sortedNotifs);
+      setNotifications(response.data || []);
+      setNotificationCursor(response.headers?.['x-next-cursor'] || null);
+      setHasMoreNotifications(response.headers?.['x-has-more'] === 'true');
 
       // specific logic for the red badge count
-      if (notificationFilter === 'all') {
-        setUnreadCount(sortedNotifs.filter(n => !n.isRead).length);
-      } else {
-        setUnreadCount(sortedNotifs.length);
-      }
+      setUnreadCount(countResponse.data?.count ?? 0);
     } catch (error) {
       console.error("Oops, failed to fetch notifications:", error);
     } finally  {
@@ -331,6 +329,23 @@ export default function Header({
     }
   }, [notificationFilter, setNotifPrefs, userData]); 
 
+  // Append the next page, after the cursor returned with the previous one
+  const loadMoreNotifications = useCallback(async () => {
+    if (!userData || !notificationCursor) return;
+    try {
+      const response = await getMyNotifications(notificationFilter === 'unread', notificationCursor);
+      const older = response.data || [];
+      setNotifications(prev => {
+        const seen = new Set(prev.map(n => n.notificationId));
+        return [...prev, ...older.filter(n => !seen.has(n.notificationId))];
+      });
+      setNotificationCursor(response.headers?.['x-next-cursor'] || null);
+      setHasMoreNotifications(response.headers?.['x-has-more'] === 'true');
+    } catch (error) {
+      console.error("Oops, failed to load more notifications:", error);
+    }
+  }, [notificationFilter, notificationCursor, userData]);
+
   // Watch for changes: If the user logs in or changes filters, refresh the list.
   useEffect(() => {
     if (userData) {
@@ -542,6 +557,8 @@ export default function Header({
             onMarkAsUnread={handleMarkAsUnread}
             onDelete={handleDelete}
             isLoading={isLoadingNotifications}
+            hasMore={hasMoreNotifications}
+            onLoadMore={loadMoreNotifications}
           />
         </Suspense>
       )}
@@ -50,7 +50,9 @@ export default function NotificationsPopup({
   onMarkAsRead,
   onMarkAsUnread,
   onDelete,
-  isLoading
+  isLoading,
+  hasMore: hasMoreOnServer,
+  onLoadMore
 }) {
   // State for pagination
   const [visibleCount, setVisibleCount] = useState(NOTIFICATIONS_PER_PAGE);
@@ -62,14 +64,17 @@ export default function NotificationsPopup({
   const [isHeaderMenuOpen, setIsHeaderMenuOpen] = useState(false);
   const navigate = useNavigate();
 
-  // Shows more notifications from the list
-  const handleLoadMore = () => {
+  // Shows more notifications, fetching the next server page when the loaded ones run out
+  const handleLoadMore = async () => {
     setIsLoadingMore(true);
-    // Simulate a short network delay for better UX
-    setTimeout(() => {
+    try {
+      if (hasMoreOnServer && onLoadMore && visibleCount + NOTIFICATIONS_PER_PAGE > notifications.length) {
+        await onLoadMore();
+      }
       setVisibleCount(prevCount => prevCount + NOTIFICATIONS_PER_PAGE);
+    } finally {
       setIsLoadingMore(false);
-    }, 600);
+    }
   };
 
   // Called when clicking 'All' or 'Unread'
@@ -131,7 +136,7 @@ export default function NotificationsPopup({
   // --- Data & Render Helpers ---
 
   const displayedNotifications = notifications.slice(0, visibleCount);
-  const hasMore = notifications.length > visibleCount;
+  const hasMore = notifications.length > visibleCount || Boolean(hasMoreOnServer);
 
   const renderNotificationText = (notification) => {
     const cleanContent = DOMPurify.sanitize(notification.content);
@@ -43,12 +43,12 @@ export default function LoginModal({ isOpen, onClose, onSwitchToRegister, onSwit
         password: formData.password
       });
 
-      const { token, message: successMessage } = response.data;
+      const { token, refreshToken, message: successMessage } = response.data;
 
       if (!token) throw new Error('Login failed: No token received.');
 
       // Save the session token
-      const userDataToStore = { token: token, email: formData.email };
+      const userDataToStore = { token: token, refreshToken: refreshToken, email: formData.email };
       localStorage.setItem('eduRentUserData', JSON.stringify(userDataToStore));
 
       // Update global Auth Context
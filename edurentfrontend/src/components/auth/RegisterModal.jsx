@@ -63,12 +63,12 @@ export default function RegisterModal({ isOpen, onClose, onSwitchToLogin }) {
     try {
       const registrationData = { ...formData, schoolId: selectedSchoolId };
       const response = await registerUser(registrationData);
-      const { token, message: successMessage } = response.data;
+      const { token, refreshToken, message: successMessage } = response.data;
 
       if (!token) throw new Error(successMessage || 'Registration failed.');
 
       // Save session and update context
-      localStorage.setItem('eduRentUserData', JSON.stringify({ token, email: formData.email }));
+      localStorage.setItem('eduRentUserData', JSON.stringify({ token, refreshToken, email: formData.email }));
       await retryAuth();
 
       setMessage({ type: 'success', content: successMessage || 'Account created!' });
@@ -39,9 +39,10 @@ export const AuthProvider = ({ children }) => {
       // Verify token with backend
       const response = await getCurrentUser();
       const freshData = response.data;
-      const currentToken = JSON.parse(stored).token;
+      // Re-read: the request may have refreshed the tokens
+      const { token: currentToken, refreshToken } = JSON.parse(localStorage.getItem('eduRentUserData') || stored);
       
-      const mergedData = { ...freshData, token: currentToken };
+      const mergedData = { ...freshData, token: currentToken, refreshToken };
       setUserData(mergedData);
       localStorage.setItem('eduRentUserData', JSON.stringify(mergedData));
     } catch (err) {
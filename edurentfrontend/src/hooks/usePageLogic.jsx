@@ -93,7 +93,7 @@ export default function usePageLogic(userData, likeData = null, availableListing
       // Note: We use size=100 and filter='All' to ensure we find chats for sold/rented items too
       const promises = [
         getListingById(listingId),
-        userData?.userId ? getConversationsForUser(userData.userId, 0, 100, 'All') : Promise.resolve(null)
+        userData?.userId ? getConversationsForUser(userData.userId, null, 100, 'All') : Promise.resolve(null)
       ];
 
       const [listingRes, conversationsRes] = await Promise.all(promises);
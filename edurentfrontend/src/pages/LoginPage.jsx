@@ -43,7 +43,7 @@ export default function LoginPage() {
         password: formData.password
       });
 
-      const { token, message: successMessage } = response.data;
+      const { token, refreshToken, message: successMessage } = response.data;
 
       // Double check that we actually got a token back
       if (!token) {
@@ -53,6 +53,7 @@ export default function LoginPage() {
       // Save the session data so the user stays logged in
       const userDataToStore = {
         token: token,
+        refreshToken: refreshToken,
         email: formData.email
       };
       localStorage.setItem('eduRentUserData', JSON.stringify(userDataToStore));
@@ -136,15 +136,15 @@ export default function MessagesPage() {
   const [userData, setUserData] = useState(null);
   const [userName, setUserName] = useState('');
   
-  // Independent Tab State: { [filterName]: { data: [], page: 0, hasMore: true, initialized: false } }
+  // Independent Tab State: { [filterName]: { data: [], nextCursor: null, hasMore: true, initialized: false } }
   const [conversationsMap, setConversationsMap] = useState({
-      'All Messages': { data: [], page: 0, hasMore: true, initialized: false },
-      'Selling': { data: [], page: 0, hasMore: true, initialized: false },
-      'Buying': { data: [], page: 0, hasMore: true, initialized: false },
-      'Unread': { data: [], page: 0, hasMore: true, initialized: false },
-      'Sold': { data: [], page: 0, hasMore: true, initialized: false },
-      'Purchased': { data: [], page: 0, hasMore: true, initialized: false },
-      'Archived': { data: [], page: 0, hasMore: true, initialized: false }
+      'All Messages': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Selling': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Buying': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Unread': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Sold': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Purchased': { data: [], nextCursor: null, hasMore: true, initialized: false },
+      'Archived': { data: [], nextCursor: null, hasMore: true, initialized: false }
   });
   
   // Track the currently open chat and its messages
@@ -189,7 +189,7 @@ export default function MessagesPage() {
   useEffect(() => { conversationsMapRef.current = conversationsMap; }, [conversationsMap]);
 
   // Derived state for the active tab
-  const activeTabState = conversationsMap[activeFilter] || { data: [], page: 0, hasMore: false };
+  const activeTabState = conversationsMap[activeFilter] || { data: [], nextCursor: null, hasMore: false };
   const conversations = activeTabState.data;
   const hasMoreConversations = activeTabState.hasMore;
   
@@ -197,8 +197,7 @@ export default function MessagesPage() {
   const [isFetchingConversations, setIsFetchingConversations] = useState(false);
   const isFetchingMoreConversations = isFetchingConversations; // Alias for now if needed, or just use isFetchingConversations
 
-  // Pagination state (Messages inside chat)
-  const [page, setPage] = useState(0);
+  // Pagination state (Messages inside chat; older pages are keyed by the oldest loaded message)
   const [hasMore, setHasMore] = useState(true);
   const [filterCounts, setFilterCounts] = useState({}); // New state for dropdown badges
   const [isFetchingMore, setIsFetchingMore] = useState(false);
@@ -419,10 +418,10 @@ export default function MessagesPage() {
       // Check if we have a listing filter from navigation state (set in useEffect) or state variable (though state update might be async)
       const stateListingId = location.state?.filterByListingId || listingFilterId;
 
-      const convResponse = await getConversationsForUser(userId, 0, 5, activeFilter, stateListingId); 
+      const convResponse = await getConversationsForUser(userId, null, 5, activeFilter, stateListingId); 
       const convs = convResponse.data || [];
       
-      const hasMoreForTab = convs.length >= 5;
+      const nextCursor = convResponse.headers?.['x-next-cursor'] || null;
 
       // Process conversation data
       const processedConvs = processConversationData(convs, userId);
@@ -431,8 +430,8 @@ export default function MessagesPage() {
           ...prev,
           [activeFilter]: {
               data: processedConvs,
-              page: 0,
-              hasMore: hasMoreForTab
+              nextCursor,
+              hasMore: nextCursor !== null
           }
       }));
       
@@ -590,16 +589,9 @@ export default function MessagesPage() {
       }
   }, [userData]);
 
+  // Initial counts only; later changes are pushed as UNREAD_COUNTS on the user topic
   useEffect(() => {
     fetchFilterCounts();
-    // Listen for global read/unread events to refresh counts
-    const refreshCounts = () => fetchFilterCounts();
-    window.addEventListener('message-read', refreshCounts);
-    window.addEventListener('message-unread', refreshCounts);
-    return () => {
-        window.removeEventListener('message-read', refreshCounts);
-        window.removeEventListener('message-unread', refreshCounts);
-    };
   }, [fetchFilterCounts]);
 
   // Helper to process raw conversation data
@@ -609,7 +601,8 @@ export default function MessagesPage() {
   // Note: fetchData is called via the effect at line ~657, not here (removed duplicate) 
   
   // Define loadTab BEFORE the useEffect that uses it (fixes hoisting issue)
-  const loadTab = useCallback(async (filterKey, pageNum) => {
+  // cursor: null loads the first window (replacing the tab), otherwise appends the next one
+  const loadTab = useCallback(async (filterKey, cursor = null) => {
       if (!userData) return;
       setIsFetchingConversations(true);
       try {
@@ -617,18 +610,19 @@ export default function MessagesPage() {
           // even if they are old and paginated out of the standard view.
           const currentListingId = listingFilterId; 
           
-          const response = await getConversationsForUser(userData.userId, pageNum, 5, filterKey, currentListingId);
+          const response = await getConversationsForUser(userData.userId, cursor, 5, filterKey, currentListingId);
           const rawConvs = response.data || [];
           const processed = processConversationData(rawConvs, userData.userId);
+          const nextCursor = response.headers?.['x-next-cursor'] || null;
           
           setConversationsMap(prev => {
-              const prevData = pageNum === 0 ? [] : (prev[filterKey]?.data || []);
+              const prevData = cursor === null ? [] : (prev[filterKey]?.data || []);
               return {
                   ...prev,
                   [filterKey]: {
                       data: [...prevData, ...processed],
-                      page: pageNum,
-                      hasMore: rawConvs.length >= 5,
+                      nextCursor,
+                      hasMore: nextCursor !== null,
                       initialized: true
                   }
               };
@@ -646,7 +640,7 @@ export default function MessagesPage() {
       if (!userData) return;
       // Only fetch if this tab has never been loaded
       if (!conversationsMap[activeFilter]?.initialized) {
-          loadTab(activeFilter, 0);
+          loadTab(activeFilter);
       }
   }, [activeFilter, userData, conversationsMap, loadTab]);
 
@@ -677,6 +671,12 @@ export default function MessagesPage() {
             stompClient.subscribe(`/topic/user.${userData.userId}`, (message) => {
               const payload = JSON.parse(message.body);
 
+              // Server-pushed tab badge counts (replaces refetching after every event)
+              if (payload.type === 'UNREAD_COUNTS') {
+                  setFilterCounts(payload.counts || {});
+                  return;
+              }
+
               // Handle Conversation Updates
               if (payload.conversationId) {
                   // Check if we already have this conversation loaded in any view
@@ -691,7 +691,7 @@ export default function MessagesPage() {
 
                   if (!existsLocally) {
                       console.log("New conversation detected, refreshing tab...");
-                      loadTab(activeFilterRef.current, 0);
+                      loadTab(activeFilterRef.current);
                   } else {
                       // Update existing in place
                       setConversationsMap(prevMap => {
@@ -720,8 +720,6 @@ export default function MessagesPage() {
                       });
                   }
               }
-              // Refresh counts whenever a new message arrives
-              fetchFilterCounts();
             });
           }, (err) => {
             console.error("Socket connection error:", err);
@@ -745,7 +743,7 @@ export default function MessagesPage() {
         setIsConnected(false);
       };
     }
-  }, [userData, loadTab, fetchFilterCounts]); // Added fetchFilterCounts dependency
+  }, [userData, loadTab]);
 
   // --- WEBSOCKET SUBSCRIPTION (Active Chat) ---
   // This effect handles subscribing/unsubscribing to the specific conversation topic
@@ -761,6 +759,15 @@ export default function MessagesPage() {
     // Subscribe to new chat
     conversationSubscriptionRef.current = stompClientRef.current.subscribe(`/topic/conversation.${selectedConversation.id}`, (message) => {
         const payload = JSON.parse(message.body);
+
+        // Read receipt for messages we sent (batched by the server)
+        if (payload.type === 'READ_RECEIPT') {
+            if (userData && payload.readerId !== userData.userId) {
+                setMessages(prev => prev.map(m =>
+                    m.senderId === userData.userId && m.id <= payload.upToMessageId ? { ...m, isRead: true } : m));
+            }
+            return;
+        }
         
         // Prevent duplicate messages if sender is self (handled optimistically)
         // Also guard against userData being null during unmount/logout
@@ -802,7 +809,6 @@ export default function MessagesPage() {
     setSelectedConversation(conversation);
     setIsChatVisible(true); 
     setMessages([]); 
-    setPage(0);       
     setHasMore(true);
     setIsChatMenuOpen(false);
     setChatUserRating(null);
@@ -817,7 +823,7 @@ export default function MessagesPage() {
     try {
       // Note: markConversationAsRead result is intentionally ignored (fire-and-forget)
       const [messagesRes, ratingRes, /* markReadRes */] = await Promise.all([
-          getMessages(conversation.id, 0),
+          getMessages(conversation.id),
           getUserReviews(conversation.otherUser.id),
           markConversationAsRead(conversation.id)
       ]);
@@ -830,7 +836,7 @@ export default function MessagesPage() {
           attachmentUrl: msg.attachmentUrl, timestamp: formatChatTimestamp(msg.sentAt), rawDate: msg.sentAt
       }));
       setMessages(mappedMessages);
-      if (messagesRes.data.length < 20) setHasMore(false);
+      setHasMore(messagesRes.headers?.['x-has-more'] === 'true');
 
       const reviews = ratingRes.data || [];
       const count = reviews.length;
@@ -851,8 +857,7 @@ export default function MessagesPage() {
 
   const handleLoadMoreConversations = () => {
     if (isFetchingConversations || !conversationsMap[activeFilter]?.hasMore || !userData) return;
-    const nextPage = conversationsMap[activeFilter]?.page + 1;
-    loadTab(activeFilter, nextPage);
+    loadTab(activeFilter, conversationsMap[activeFilter]?.nextCursor || null);
   };
 
   // --- Sidebar Actions (Delete, Archive, Mark Read) ---
@@ -927,10 +932,8 @@ export default function MessagesPage() {
     } catch (err) { 
         console.error("Archive failed", err); 
         // Revert is hard without previous state history, so just refetch active tab
-        loadTab(activeFilter, conversationsMap[activeFilter]?.page || 0);
+        loadTab(activeFilter);
         toast.showError("Action failed. Reloading...");
-    } finally {
-        fetchFilterCounts(); // Refresh counts
     }
   };
 
@@ -954,10 +957,8 @@ export default function MessagesPage() {
         toast.showSuccess("Conversation deleted");
     } catch (err) { 
         console.error("Delete failed", err); 
-        loadTab(activeFilter, 0); // Reload on error
+        loadTab(activeFilter); // Reload on error
         toast.showError("Failed to delete conversation");
-    } finally {
-        fetchFilterCounts(); // Refresh counts
     }
   };
 
@@ -1059,9 +1060,9 @@ export default function MessagesPage() {
     if (scrollTop === 0 && hasMore && !isFetchingMore) {
       setIsFetchingMore(true);
       const prevHeight = e.currentTarget.scrollHeight; 
-      const nextPage = page + 1;
+      const oldestId = messages[0]?.id;
       try {
-        const response = await getMessages(selectedConversation.id, nextPage);
+        const response = await getMessages(selectedConversation.id, oldestId);
         const newRawMessages = response.data;
         if (newRawMessages.length > 0) {
           const mappedNewMessages = newRawMessages.map(msg => ({
@@ -1069,9 +1070,8 @@ export default function MessagesPage() {
             attachmentUrl: msg.attachmentUrl, timestamp: formatChatTimestamp(msg.sentAt), rawDate: msg.sentAt
           }));
           setMessages(prev => [...mappedNewMessages, ...prev]);
-          setPage(nextPage);
           requestAnimationFrame(() => { if (chatContentRef.current) chatContentRef.current.scrollTop = chatContentRef.current.scrollHeight - prevHeight; });
-          if (newRawMessages.length < 20) setHasMore(false);
+          setHasMore(response.headers?.['x-has-more'] === 'true');
         } else { setHasMore(false); }
       } catch (err) { console.error("Failed load older messages", err); } finally { setIsFetchingMore(false); }
     }
@@ -1108,11 +1108,11 @@ export default function MessagesPage() {
           toast.showSuccess(willArchive ? "Conversation archived" : "Conversation unarchived");
           
           // Re-evaluate list presence
-          loadTab(activeFilter, 0); // Reload current tab to correctly filter it out/in
+          loadTab(activeFilter); // Reload current tab to correctly filter it out/in
           
       } catch (err) { 
           console.error("Archive failed", err);
-          loadTab(activeFilter, 0);
+          loadTab(activeFilter);
           toast.showError("Failed to update archive status");
       }
   };
@@ -1140,7 +1140,7 @@ export default function MessagesPage() {
           toast.showSuccess("Conversation deleted");
       } catch (err) { 
           console.error("Delete failed", err); 
-          loadTab(activeFilter, 0); // Reload
+          loadTab(activeFilter); // Reload
           toast.showError("Failed to delete");
       }
   };
@@ -73,7 +73,7 @@ export default function RegisterPage() {
       // Send registration request
       const response = await registerUser(registrationData);
 
-      const { token, message: successMessage } = response.data;
+      const { token, refreshToken, message: successMessage } = response.data;
 
       if (!token) {
         throw new Error(successMessage || 'Registration successful, but no token received.');
@@ -84,6 +84,7 @@ export default function RegisterPage() {
       // Save the session token immediately so the user doesn't have to log in again
       const userDataToStore = {
         token: token,
+        refreshToken: refreshToken,
         email: formData.email 
       };
       localStorage.setItem('eduRentUserData', JSON.stringify(userDataToStore));
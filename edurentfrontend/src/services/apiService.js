@@ -38,15 +38,50 @@ apiClient.interceptors.request.use(
   }
 );
 
-// Redirect to login on 401s
+const getRefreshToken = () => {
+  try {
+    return JSON.parse(localStorage.getItem('eduRentUserData') || '{}').refreshToken || null;
+  } catch (e) {
+    return null;
+  }
+};
+
+// Stores a new access/refresh token pair in the saved session
+export const storeSessionTokens = (token, refreshToken) => {
+  let stored = {};
+  try {
+    stored = JSON.parse(localStorage.getItem('eduRentUserData') || '{}');
+  } catch (e) {
+    stored = {};
+  }
+  localStorage.setItem('eduRentUserData', JSON.stringify({ ...stored, token, refreshToken }));
+};
+
+// One refresh at a time, shared by requests that fail together
+let refreshInFlight = null;
+
+// On 401, renew the short-lived access token once with the refresh token and retry
 apiClient.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     const status = error?.response?.status;
-    if (status === 401) {
-      // Optional: clear stale token and redirect
-      // localStorage.removeItem('eduRentUserData'); // Commented out to prevent auto-logout loops during debugging
-      // Preserve SPA flow; let caller decide UI message
+    const original = error?.config;
+    const isAuthCall = original?.url?.startsWith('/auth/refresh') || original?.url?.startsWith('/auth/login');
+    const refreshToken = getRefreshToken();
+
+    if (status === 401 && original && !original._retried && !isAuthCall && refreshToken) {
+      original._retried = true;
+      try {
+        refreshInFlight = refreshInFlight
+          || axios.post(`${API_URL}/auth/refresh`, { refreshToken }).finally(() => { refreshInFlight = null; });
+        const { data } = await refreshInFlight;
+        storeSessionTokens(data.token, data.refreshToken);
+        original.headers['Authorization'] = `Bearer ${data.token}`;
+        return apiClient(original);
+      } catch (refreshError) {
+        // Refresh token expired or revoked (password changed): the caller handles the 401
+        console.error("Session refresh failed:", refreshError.response || refreshError.message);
+      }
     }
     return Promise.reject(error);
   }
@@ -90,6 +125,10 @@ export const changePassword = async (currentPassword, newPassword) => {
       currentPassword,
       newPassword,
     });
+    // Older tokens are revoked; continue with the pair issued for this session
+    if (response.data?.token) {
+      storeSessionTokens(response.data.token, response.data.refreshToken);
+    }
     return response;
   } catch (error) {
     console.error("Error during changePassword API call:", error.response || error.message);
@@ -228,6 +267,19 @@ export const getListings = async (page = 0, size = 10) => {
   }
 };
 
+// Infinite-scroll feed: pass the previous response's nextCursor (null for the first window)
+export const getListingsByCursor = async (cursor = null, size = 10) => {
+  try {
+    const response = await apiClient.get(`/listings/scroll`, {
+      params: cursor ? { cursor, size } : { size }
+    });
+    return response;
+  } catch (error) {
+    console.error("Error during getListingsByCursor API call:", error.response || error.message);
+    throw error;
+  }
+};
+
 export const getListingsByCategoryId = async (categoryId, page = 0, size = 10) => {
   try {
     const response = await apiClient.get(`/listings/category/${categoryId}`, {
@@ -240,6 +292,20 @@ export const getListingsByCategoryId = async (categoryId, page = 0, size = 10) =
   }
 };
 
+// Compact card payloads for browse grids (no seller profile, images or transactions)
+export const getListingCards = async (page = 0, size = 10, categoryId = null) => {
+  try {
+    const url = categoryId ? `/listings/category/${categoryId}/cards` : `/listings/cards`;
+    const response = await apiClient.get(url, {
+      params: { page, size }
+    });
+    return response;
+  } catch (error) {
+    console.error("Error during getListingCards API call:", error.response || error.message);
+    throw error;
+  }
+};
+
 export const getUsers = async () => {
   try {
     const response = await apiClient.get(`/users`);
@@ -263,6 +329,34 @@ export const getListingsByType = async (type, page = 0, size = 10) => {
   }
 };
 
+// Ranked full-text search (title, description, condition) served by the backend index
+export const searchListings = async (query, page = 0, size = 10) => {
+  try {
+    const response = await apiClient.get(`/listings/search`, {
+      params: { q: query, page, size }
+    });
+    return response;
+  } catch (error) {
+    console.error(`Error searchListings(${query}):`, error.response || error.message);
+    throw error;
+  }
+};
+
+// Combined filter in one request. 'filters' may hold minPrice, maxPrice, condition,
+// listingType, allowMeetup, allowDelivery, categoryId, schoolId (omit for "any").
+// Response: { listings: Page, facets: { category: [{ value, label, count }], ... } }
+export const filterListings = async (filters = {}, page = 0, size = 10) => {
+  try {
+    const response = await apiClient.get(`/listings/filter`, {
+      params: { ...filters, page, size }
+    });
+    return response;
+  } catch (error) {
+    console.error("Error during filterListings API call:", error.response || error.message);
+    throw error;
+  }
+};
+
 // Creates a new listing. Supports file uploads via FormData.
 export const createListing = async (listingData) => {
   try {
@@ -362,13 +456,16 @@ export const unlikeListing = async (listingId) => {
 
 // --- Notifications ---
 
-// Fetches notifications for the user, optionally filtering for unread ones
-export const getMyNotifications = async (unreadOnly = false) => {
+// Fetches one page of notifications, newest first, optionally filtering for unread ones.
+// Pass the oldest loaded notificationId as 'before' for the next page (see the X-Has-More header).
+// Keyset paged: pass the previous response's x-next-cursor header as 'cursor' (null for the newest)
+export const getMyNotifications = async (unreadOnly = false, cursor = null, size = 20) => {
   try {
-    const params = {};
+    const params = { size };
     if (unreadOnly) {
       params.unread = true;
     }
+    if (cursor) params.cursor = cursor;
     const response = await apiClient.get('/notifications/my-notifications', { params });
     return response;
   } catch (error) {
@@ -377,6 +474,16 @@ export const getMyNotifications = async (unreadOnly = false) => {
   }
 };
 
+export const getUnreadNotificationCount = async () => {
+  try {
+    const response = await apiClient.get('/notifications/unread-count');
+    return response;
+  } catch (error) {
+    console.error("Error during getUnreadNotificationCount API call:", error.response || error.message);
+    throw error;
+  }
+};
+
 export const markNotificationAsRead = async (notificationId) => {
   try {
     const response = await apiClient.put(`/notifications/${notificationId}/read`);
@@ -513,9 +620,11 @@ export const startConversation = async (listingId, starterId, receiverId) => {
   }
 };
 
-export const getConversationsForUser = async (userId, page = 0, size = 5, filter = 'All Messages', listingId = null) => {
+// Keyset paged: pass the previous response's x-next-cursor header as 'cursor' (null for the first window)
+export const getConversationsForUser = async (userId, cursor = null, size = 5, filter = 'All Messages', listingId = null) => {
   try {
-    const params = { page, size, filter };
+    const params = { size, filter };
+    if (cursor) params.cursor = cursor;
     if (listingId) params.listingId = listingId;
     
     const response = await apiClient.get(`/conversations/user/${userId}`, { params });
@@ -537,12 +646,14 @@ export const getUnreadCounts = async (userId) => {
   }
 };
 
-// Fetches message history for a specific conversation with pagination
-export const getMessages = async (conversationId, page = 0, size = 20) => {
+// Fetches message history for a specific conversation, newest window first.
+// Pass the oldest loaded messageId as 'before' to load older messages;
+// the 'x-has-more' response header tells whether anything older remains.
+export const getMessages = async (conversationId, before = null, size = 20) => {
   try {
-    const response = await apiClient.get(`/conversations/${conversationId}/messages`, {
-      params: { page, size }
-    });
+    const params = { size };
+    if (before != null) params.before = before;
+    const response = await apiClient.get(`/conversations/${conversationId}/messages`, { params });
     return response;
   } catch (error) {
     console.error(`Error during getMessages(${conversationId}) API call:`, error.response || error.message);